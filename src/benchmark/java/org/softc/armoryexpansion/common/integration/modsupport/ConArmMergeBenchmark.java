@@ -0,0 +1,97 @@
+package org.softc.armoryexpansion.common.integration.modsupport;
+
+import slimeknights.tconstruct.library.materials.Material;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times ConArm's merge of the registry materials against the materials loaded from JSON, from 100 to 20,000 materials,
+ * next to the list lookup it replaced. Half of the registry materials are loaded.
+ * The time per material of the hashed merge should stay flat as the number of materials grows,
+ * while the list lookup grows with it. Run with {@code gradlew benchmarkMerge}.
+ */
+public final class ConArmMergeBenchmark {
+    private static final int[] SIZES = {100, 500, 1000, 2000, 5000, 10000, 20000};
+    private static final int WARMUP_RUNS = 200;
+    private static final int RUNS = 21;
+    // The list lookup takes seconds at the largest size
+    private static final int LIST_RUNS = 3;
+
+    private ConArmMergeBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        warmUp();
+        System.out.println(String.format("%10s %14s %14s %14s %14s", "materials", "hashed ms", "hashed ns/mat", "list ms", "list ns/mat"));
+        for (int size : SIZES) {
+            List<Material> registry = getRegistryMaterials(size);
+            Map<String, Object> loaded = getLoadedMaterials(registry);
+            List<String> loadedList = new LinkedList<>(loaded.keySet());
+
+            long hashed = median(RUNS, () -> check(ConArmIntegration.getUnloadedMaterials(registry, loaded), size));
+            long list = median(LIST_RUNS, () -> check(getUnloadedMaterials(registry, loadedList), size));
+            System.out.println(String.format("%10d %14.3f %14.1f %14.3f %14.1f", size,
+                    hashed / 1e6, (double) hashed / size, list / 1e6, (double) list / size));
+        }
+    }
+
+    private static void warmUp() {
+        List<Material> registry = getRegistryMaterials(SIZES[SIZES.length - 1]);
+        Map<String, Object> loaded = getLoadedMaterials(registry);
+        List<String> loadedList = new LinkedList<>(getLoadedMaterials(getRegistryMaterials(SIZES[0])).keySet());
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            ConArmIntegration.getUnloadedMaterials(registry, loaded);
+            getUnloadedMaterials(registry, loadedList);
+        }
+    }
+
+    private static List<Material> getRegistryMaterials(int size) {
+        List<Material> materials = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            materials.add(new Material("benchmark_material_" + i, 0xFFFFFF));
+        }
+        return materials;
+    }
+
+    private static Map<String, Object> getLoadedMaterials(List<Material> registry) {
+        Map<String, Object> loaded = new ConcurrentHashMap<>();
+        for (int i = 0; i < registry.size(); i += 2) {
+            loaded.put(registry.get(i).identifier, Boolean.TRUE);
+        }
+        return loaded;
+    }
+
+    /**
+     * The merge before it was indexed, a linear search of the loaded materials for every registry material.
+     */
+    private static List<Material> getUnloadedMaterials(List<Material> registry, List<String> loaded) {
+        List<Material> unloaded = new ArrayList<>(registry.size());
+        for (Material material : registry) {
+            if (!loaded.contains(material.identifier)) {
+                unloaded.add(material);
+            }
+        }
+        return unloaded;
+    }
+
+    private static void check(List<Material> unloaded, int size) {
+        if (unloaded.size() != size / 2) {
+            throw new IllegalStateException("Expected " + size / 2 + " unloaded materials, got " + unloaded.size());
+        }
+    }
+
+    /**
+     * @return the median duration of the runs in nanoseconds
+     */
+    private static long median(int runs, Runnable merge) {
+        long[] durations = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            merge.run();
+            durations[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(durations);
+        return durations[runs / 2];
+    }
+}
@@ -4,16 +4,32 @@ import c4.conarm.ConstructsArmory;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.common.config.Configuration;
 import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.event.FMLInitializationEvent;
+import net.minecraftforge.fml.common.event.FMLLoadCompleteEvent;
+import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
+import org.apache.logging.log4j.Logger;
+import org.softc.armoryexpansion.common.integration.aelib.integration.AbstractIntegration;
+import org.softc.armoryexpansion.common.integration.aelib.integration.IIntegration;
+import org.softc.armoryexpansion.common.integration.aelib.integration.IntegrationDispatcher;
+import org.softc.armoryexpansion.common.integration.aelib.integration.IntegrationScheduler;
+import org.softc.armoryexpansion.common.integration.aelib.json.BundledData;
+import org.softc.armoryexpansion.common.util.FilePrefetcher;
 import slimeknights.tconstruct.TConstruct;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Mod(
         modid = ArmoryExpansion.MODID,
         name = ArmoryExpansion.NAME,
         version = ArmoryExpansion.VERSION,
         dependencies = ArmoryExpansion.DEPENDENCIES
 )
-@Mod.EventBusSubscriber
 public final class ArmoryExpansion {
     public static final String MODID = "armoryexpansion";
     public static final String NAME = "Armory Expansion";
@@ -23,6 +39,16 @@ public final class ArmoryExpansion {
             "required-after:" + ConstructsArmory.MODID + "; ";
 
     private static Configuration config;
+    private static Logger logger;
+
+    // Read once, the integrations ask for these in every lifecycle phase
+    private static final Map<String, Boolean> INTEGRATIONS = new ConcurrentHashMap<>();
+    private static final Map<String, Boolean> LOADING_OPTIONS = new ConcurrentHashMap<>();
+    private static volatile int boundedInputStreamMaxSize = -1;
+
+    private static boolean saveRequested;
+    private static int saveRequests;
+    private static int saves;
 
     public static Configuration getConfig() {
         return config;
@@ -30,21 +56,124 @@ public final class ArmoryExpansion {
 
     public static void setConfig(Configuration config) {
         ArmoryExpansion.config = config;
+        invalidateConfigCache();
+    }
+
+    /**
+     * Drops the cached integration, loading and web server options, the next lookup reads them from the configuration again.
+     */
+    public static void invalidateConfigCache() {
+        INTEGRATIONS.clear();
+        LOADING_OPTIONS.clear();
+        boundedInputStreamMaxSize = -1;
+    }
+
+    /**
+     * Marks the configuration to be saved, it is written once at the start of the next lifecycle stage.
+     */
+    public static synchronized void requestConfigSave() {
+        saveRequested = true;
+        saveRequests++;
+    }
+
+    private static synchronized void flushConfig() {
+        if (saveRequested && null != config && config.hasChanged()) {
+            config.save();
+            saves++;
+        }
+        saveRequested = false;
     }
 
     @Mod.EventHandler
     public void preInit(final FMLPreInitializationEvent event) {
-        MinecraftForge.EVENT_BUS.register(this);
-        config = new Configuration(event.getSuggestedConfigurationFile());
+        // Subscribed once here, the integrations never subscribe their registry phases themselves
+        MinecraftForge.EVENT_BUS.register(IntegrationDispatcher.getInstance());
+        setConfig(new Configuration(event.getSuggestedConfigurationFile()));
+        logger = event.getModLog();
+        if (isPrefetchEnabled()) {
+            // The integrations' preInit runs after this one, so their reads overlap with Forge loading other mods
+            List<File> files = new ArrayList<>();
+            IntegrationDispatcher.getIntegrations().forEach(integration -> files.addAll(integration.getInputFiles(event.getModConfigurationDirectory())));
+            FilePrefetcher.prefetch(files);
+            CompletableFuture.runAsync(() -> BundledData.preload(ArmoryExpansion.class.getClassLoader()));
+        }
+        if (isIntegrationSchedulingEnabled()) {
+            List<IIntegration> integrations = IntegrationDispatcher.getIntegrations();
+            // Forge's configuration is not thread-safe, so everything the integrations read while loading is cached first
+            integrations.forEach(IIntegration::isLoadable);
+            isParallelLoadingEnabled();
+            isSnapshotCacheEnabled();
+            getBoundedInputStreamMaxSize();
+            IntegrationScheduler.start(integrations, event.getModConfigurationDirectory(), logger);
+        }
+    }
+
+    @Mod.EventHandler
+    public void init(final FMLInitializationEvent event) {
+        flushConfig();
+        logger.info(FilePrefetcher.finish());
+        IntegrationScheduler.logReport(logger);
+    }
+
+    @Mod.EventHandler
+    public void postInit(final FMLPostInitializationEvent event) {
+        flushConfig();
+        // Normally done by the last integration's init already
+        AbstractIntegration.registerOreDictionaryEntries(logger);
+    }
+
+    @Mod.EventHandler
+    public void loadComplete(final FMLLoadCompleteEvent event) {
+        flushConfig();
+        synchronized (ArmoryExpansion.class) {
+            logger.info("Saved the configuration " + saves + " times for " + saveRequests + " requests, avoided "
+                    + (saveRequests - saves) + " saves");
+        }
+        IntegrationDispatcher.logInvocations(logger);
     }
 
     public static boolean isIntegrationEnabled(String modid){
-        return config
-                .get("integrations", modid, true, "Whether integration with " + modid + " should be enabled").getBoolean();
+        return INTEGRATIONS.computeIfAbsent(modid, id -> config
+                .get("integrations", id, true, "Whether integration with " + id + " should be enabled").getBoolean());
+    }
+
+    public static boolean isParallelLoadingEnabled(){
+        return LOADING_OPTIONS.computeIfAbsent("parallel loading", key -> config.get("loading", key, true,
+                "Whether the JSON files of each integration should be read and parsed in parallel").getBoolean());
+    }
+
+    public static boolean isIntegrationSchedulingEnabled(){
+        return config.get("loading", "schedule integrations", true,
+                "Whether the integrations should load their data on worker threads right after Armory Expansion is pre-initialized, " +
+                "each one waiting only for the integrations whose data it reads").getBoolean();
+    }
+
+    public static boolean isPrefetchEnabled(){
+        return config.get("loading", "prefetch files", true,
+                "Whether the integration JSON files should be read in the background as soon as possible").getBoolean();
+    }
+
+    public static boolean isSnapshotCacheEnabled(){
+        return LOADING_OPTIONS.computeIfAbsent("snapshot cache", key -> config.get("loading", key, true,
+                "Whether integration data should be restored from a binary snapshot in config/armoryexpansion/.cache when its JSON inputs did not change").getBoolean());
+    }
+
+    public static boolean isHotReloadEnabled(){
+        return config.get("loading", "watch custom materials", false,
+                "Whether changes to the custom materials JSON files should be reloaded while the server is running, /armoryexpansion reload works either way").getBoolean();
+    }
+
+    public static boolean isDirectSmelteryRegistrationEnabled(String modid){
+        return config.get("smeltery registration", modid, false,
+                "Experimental: whether the smeltery fluids and alloys of " + modid + " should be registered with Tinkers' Construct directly instead of through IMC messages. " +
+                "Direct registration happens while items are registered, earlier than Tinkers handles IMC, so melting, casting and toolforge recipes may differ").getBoolean();
     }
 
     public static int getBoundedInputStreamMaxSize(){
-        return config.get("web server", "input stream max size", 131072,
-                "The maximum size of the data received from the Web Server").getInt();
+        if (-1 == boundedInputStreamMaxSize) {
+            boundedInputStreamMaxSize = config.get("web server", "input stream max size", 131072,
+                    "The maximum size of the data received from the Web Server, larger inputs fail to load instead of being truncated (0 disables the limit)").getInt();
+        }
+        return boundedInputStreamMaxSize;
     }
 }
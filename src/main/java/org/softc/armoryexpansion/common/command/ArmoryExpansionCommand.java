@@ -0,0 +1,41 @@
+package org.softc.armoryexpansion.common.command;
+
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.text.TextComponentString;
+import org.softc.armoryexpansion.ArmoryExpansion;
+import org.softc.armoryexpansion.common.integration.aelib.integration.IntegrationReloader;
+
+public class ArmoryExpansionCommand extends CommandBase {
+    private final IntegrationReloader<?> reloader;
+
+    public ArmoryExpansionCommand(IntegrationReloader<?> reloader) {
+        this.reloader = reloader;
+    }
+
+    @Override
+    public String getName() {
+        return ArmoryExpansion.MODID;
+    }
+
+    @Override
+    public String getUsage(ICommandSender sender) {
+        return "/" + ArmoryExpansion.MODID + " reload";
+    }
+
+    @Override
+    public int getRequiredPermissionLevel() {
+        return 2;
+    }
+
+    @Override
+    public void execute(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException {
+        if (1 != args.length || !"reload".equals(args[0])) {
+            throw new CommandException(this.getUsage(sender));
+        }
+        sender.sendMessage(new TextComponentString("Reloading custom materials..."));
+        this.reloader.requestReload(summary -> sender.sendMessage(new TextComponentString(summary)));
+    }
+}
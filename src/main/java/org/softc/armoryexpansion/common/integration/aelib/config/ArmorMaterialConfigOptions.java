@@ -26,7 +26,15 @@ public class ArmorMaterialConfigOptions {
         this.armorOptions = new ArmorConfigOptions(armorOptions);
     }
 
-    String getName() {
+    ArmorMaterialConfigOptions(String name, boolean material, boolean fluid, boolean traits, ArmorConfigOptions armorOptions) {
+        this.name = name;
+        this.material = material;
+        this.fluid = fluid;
+        this.traits = traits;
+        this.armorOptions = armorOptions;
+    }
+
+    public String getName() {
         return this.name;
     }
 
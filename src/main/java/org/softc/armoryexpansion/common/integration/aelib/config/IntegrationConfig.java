@@ -2,48 +2,98 @@ package org.softc.armoryexpansion.common.integration.aelib.config;
 
 import org.softc.armoryexpansion.common.integration.aelib.plugins.general.material.IBasicMaterial;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+/**
+ * The options of every material, packed into one word of {@link MaterialConfigFlags} indexed by material ordinal.
+ * The nested {@link MaterialConfigOptions} are only built from the flags when they are saved.
+ */
 public class IntegrationConfig {
-    private static MaterialConfigOptions defaultMaterialConfigOptions;
-    private Map<String, MaterialConfigOptions> integrationMaterials = new HashMap<>();
+    private static int defaultFlags = -1;
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private int[] flags = new int[0];
 
-    private static MaterialConfigOptions getDefault(){
-        if (null == defaultMaterialConfigOptions) {
-            defaultMaterialConfigOptions = new MaterialConfigOptions();
+    /**
+     * @return whether the options were added, options for a material that is already configured are ignored
+     */
+    public boolean insertMaterialConfigOptions(MaterialConfigOptions materialConfigOptions){
+        if(!this.ordinals.containsKey(materialConfigOptions.getName())){
+            this.putFlags(materialConfigOptions.getName(), MaterialConfigFlags.pack(materialConfigOptions));
+            return true;
         }
-        return defaultMaterialConfigOptions;
+        return false;
     }
 
-    public void insertMaterialConfigOptions(MaterialConfigOptions materialConfigOptions){
-//        this.integrationMaterials.putIfAbsent(materialConfigOptions.getName(), materialConfigOptions);
-        if(!this.integrationMaterials.containsKey(materialConfigOptions.name)){
-            this.integrationMaterials.put(materialConfigOptions.getName(), materialConfigOptions);
+    public void putFlags(String material, int materialFlags){
+        Integer ordinal = this.ordinals.get(material);
+        if (null == ordinal) {
+            ordinal = this.ordinals.size();
+            this.ordinals.put(material, ordinal);
+            if (this.flags.length == ordinal) {
+                this.flags = Arrays.copyOf(this.flags, Math.max(16, 2 * ordinal));
+            }
         }
+        this.flags[ordinal] = materialFlags;
     }
 
-    public MaterialConfigOptions getSafeMaterialConfigOptions(String identifier){
-        return this.integrationMaterials.getOrDefault(identifier, getDefault());
+    public boolean isConfigured(String material){
+        return this.ordinals.containsKey(material);
     }
 
+    /**
+     * @return the {@link MaterialConfigFlags} of the material, or those of the default options if it has none
+     */
+    public int getFlags(String material){
+        Integer ordinal = this.ordinals.get(material);
+        return null == ordinal ? getDefaultFlags() : this.flags[ordinal];
+    }
+
+    private static int getDefaultFlags(){
+        if (-1 == defaultFlags) {
+            defaultFlags = MaterialConfigFlags.pack(new MaterialConfigOptions());
+        }
+        return defaultFlags;
+    }
+
+    /**
+     * @return the options of every material in the order they were added, built from the flags for saving them,
+     * changes to them are not kept
+     */
     public Map<String, MaterialConfigOptions> getIntegrationMaterials() {
-        return null == this.integrationMaterials ? new HashMap<>() : this.integrationMaterials;
+        MaterialConfigOptions[] options = new MaterialConfigOptions[this.ordinals.size()];
+        this.ordinals.forEach((material, ordinal) -> options[ordinal] = MaterialConfigFlags.unpack(material, this.flags[ordinal]));
+        Map<String, MaterialConfigOptions> materials = new LinkedHashMap<>(options.length * 2);
+        for (MaterialConfigOptions materialOptions : options) {
+            materials.put(materialOptions.getName(), materialOptions);
+        }
+        return materials;
     }
 
-    public void syncConfig(Map<String, ? extends IBasicMaterial> materials) {
-        materials.values().forEach(material -> this.insertMaterialConfigOptions(new MaterialConfigOptions(material)));
+    /**
+     * @return the number of materials that had no options yet
+     */
+    public int syncConfig(Map<String, ? extends IBasicMaterial> materials) {
+        int added = 0;
+        for (IBasicMaterial material : materials.values()) {
+            if (this.insertMaterialConfigOptions(new MaterialConfigOptions(material))) {
+                added++;
+            }
+        }
+        return added;
     }
 
     public boolean materialEnabled(String material){
-        return this.getSafeMaterialConfigOptions(material).materialEnabled();
+        return MaterialConfigFlags.has(this.getFlags(material), MaterialConfigFlags.MATERIAL);
     }
 
     public boolean fluidEnabled(String material){
-        return this.getSafeMaterialConfigOptions(material).fluidEnabled();
+        return MaterialConfigFlags.has(this.getFlags(material), MaterialConfigFlags.FLUID);
     }
 
     public boolean traitsEnabled(String material){
-        return this.getSafeMaterialConfigOptions(material).traitsEnabled();
+        return MaterialConfigFlags.has(this.getFlags(material), MaterialConfigFlags.TRAITS);
     }
 }
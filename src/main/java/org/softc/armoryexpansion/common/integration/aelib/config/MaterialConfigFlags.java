@@ -0,0 +1,68 @@
+package org.softc.armoryexpansion.common.integration.aelib.config;
+
+/**
+ * Packs every toggle of a {@link MaterialConfigOptions} into a single int.
+ */
+public final class MaterialConfigFlags {
+    public static final int MATERIAL = 1;
+    public static final int FLUID = 1 << 1;
+    public static final int TRAITS = 1 << 2;
+    public static final int ARMOR = 1 << 3;
+    public static final int CORE = 1 << 4;
+    public static final int PLATES = 1 << 5;
+    public static final int TRIM = 1 << 6;
+    public static final int TOOL = 1 << 7;
+    public static final int HEAD = 1 << 8;
+    public static final int HANDLE = 1 << 9;
+    public static final int EXTRA = 1 << 10;
+    public static final int RANGED = 1 << 11;
+    public static final int BOW = 1 << 12;
+    public static final int BOWSTRING = 1 << 13;
+    public static final int SHAFT = 1 << 14;
+    public static final int FLETCHING = 1 << 15;
+    public static final int PROJECTILE = 1 << 16;
+
+    private MaterialConfigFlags() {
+    }
+
+    public static int pack(MaterialConfigOptions options) {
+        int flags = 0;
+        flags |= options.materialEnabled() ? MATERIAL : 0;
+        flags |= options.fluidEnabled() ? FLUID : 0;
+        flags |= options.traitsEnabled() ? TRAITS : 0;
+        flags |= options.armorEnabled() ? ARMOR : 0;
+        flags |= options.coreEnabled() ? CORE : 0;
+        flags |= options.platesEnabled() ? PLATES : 0;
+        flags |= options.trimEnabled() ? TRIM : 0;
+        flags |= options.isToolEnabled() ? TOOL : 0;
+        flags |= options.isHeadEnabled() ? HEAD : 0;
+        flags |= options.isHandleEnabled() ? HANDLE : 0;
+        flags |= options.isExtraEnabled() ? EXTRA : 0;
+        flags |= options.isRangedEnabled() ? RANGED : 0;
+        flags |= options.isBowEnabled() ? BOW : 0;
+        flags |= options.isBowStringEnabled() ? BOWSTRING : 0;
+        flags |= options.isShaftEnabled() ? SHAFT : 0;
+        flags |= options.isFletchingEnabled() ? FLETCHING : 0;
+        flags |= options.isProjectileEnabled() ? PROJECTILE : 0;
+        return flags;
+    }
+
+    public static MaterialConfigOptions unpack(String name, int flags) {
+        return new MaterialConfigOptions(name, has(flags, MATERIAL), has(flags, FLUID), has(flags, TRAITS),
+                new ArmorMaterialConfigOptions.ArmorConfigOptions(has(flags, ARMOR), has(flags, CORE), has(flags, PLATES), has(flags, TRIM)),
+                new MaterialConfigOptions.ToolConfigOptions(has(flags, TOOL), has(flags, HEAD), has(flags, HANDLE), has(flags, EXTRA)),
+                new MaterialConfigOptions.RangedConfigOptions(has(flags, RANGED), has(flags, BOW), has(flags, BOWSTRING),
+                        has(flags, SHAFT), has(flags, FLETCHING), has(flags, PROJECTILE)));
+    }
+
+    public static boolean has(int flags, int flag) {
+        return 0 != (flags & flag);
+    }
+
+    /**
+     * @return whether every flag of the mask is set
+     */
+    public static boolean hasAll(int flags, int mask) {
+        return mask == (flags & mask);
+    }
+}
@@ -2,6 +2,8 @@ package org.softc.armoryexpansion.common.integration.aelib.config;
 
 import org.softc.armoryexpansion.common.integration.aelib.plugins.general.material.IBasicMaterial;
 
+import java.util.Objects;
+
 public class MaterialConfigOptions extends ArmorMaterialConfigOptions{
     private ToolConfigOptions toolOptions;
     private RangedConfigOptions rangedOptions;
@@ -19,6 +21,12 @@ public class MaterialConfigOptions extends ArmorMaterialConfigOptions{
         this.rangedOptions = new RangedConfigOptions(iBasicMaterial.isRangedMaterial());
     }
 
+    MaterialConfigOptions(String name, boolean material, boolean fluid, boolean traits, ArmorConfigOptions armorOptions, ToolConfigOptions toolOptions, RangedConfigOptions rangedOptions) {
+        super(name, material, fluid, traits, armorOptions);
+        this.toolOptions = toolOptions;
+        this.rangedOptions = rangedOptions;
+    }
+
     public boolean isToolEnabled(){
         return this.toolOptions.enableTool;
     }
@@ -59,7 +67,7 @@ public class MaterialConfigOptions extends ArmorMaterialConfigOptions{
         return this.rangedOptions.enableProjectile;
     }
 
-    private static class ToolConfigOptions {
+    static class ToolConfigOptions {
         private boolean enableTool;
         private boolean enableHead;
         private boolean enableHandle;
@@ -77,7 +85,7 @@ public class MaterialConfigOptions extends ArmorMaterialConfigOptions{
         }
     }
 
-    private static class RangedConfigOptions {
+    static class RangedConfigOptions {
         private boolean enableRanged;
         private boolean enableBow;
         private boolean enableBowString;
@@ -101,6 +109,11 @@ public class MaterialConfigOptions extends ArmorMaterialConfigOptions{
 
     @Override
     public boolean equals(Object obj){
-        return obj instanceof MaterialConfigOptions && this.getName().equals(((ArmorMaterialConfigOptions) obj).getName());
+        return obj instanceof MaterialConfigOptions && Objects.equals(this.getName(), ((ArmorMaterialConfigOptions) obj).getName());
+    }
+
+    @Override
+    public int hashCode(){
+        return Objects.hashCode(this.getName());
     }
 }
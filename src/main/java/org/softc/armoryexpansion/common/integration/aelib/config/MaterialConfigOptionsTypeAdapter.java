@@ -0,0 +1,117 @@
+package org.softc.armoryexpansion.common.integration.aelib.config;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+import static org.softc.armoryexpansion.common.integration.aelib.json.JsonAdapterHelper.*;
+
+public class MaterialConfigOptionsTypeAdapter extends TypeAdapter<MaterialConfigOptions> {
+    private static final String[] TOOL_FLAGS = {"enableTool", "enableHead", "enableHandle", "enableExtra"};
+    private static final String[] RANGED_FLAGS = {"enableRanged", "enableBow", "enableBowString", "enableShaft", "enableFletching", "enableProjectile"};
+    private static final String[] ARMOR_FLAGS = {"enableArmor", "enableCore", "enablePlates", "enableTrim"};
+
+    @Override
+    public void write(JsonWriter out, MaterialConfigOptions options) throws IOException {
+        if (null == options) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        writeFlags(out, "toolOptions", TOOL_FLAGS,
+                options.isToolEnabled(), options.isHeadEnabled(), options.isHandleEnabled(), options.isExtraEnabled());
+        writeFlags(out, "rangedOptions", RANGED_FLAGS,
+                options.isRangedEnabled(), options.isBowEnabled(), options.isBowStringEnabled(),
+                options.isShaftEnabled(), options.isFletchingEnabled(), options.isProjectileEnabled());
+        writeString(out, "name", options.getName());
+        writeBoolean(out, "material", options.materialEnabled());
+        writeBoolean(out, "fluid", options.fluidEnabled());
+        writeBoolean(out, "traits", options.traitsEnabled());
+        writeFlags(out, "armorOptions", ARMOR_FLAGS,
+                options.armorEnabled(), options.coreEnabled(), options.platesEnabled(), options.trimEnabled());
+        out.endObject();
+    }
+
+    private static void writeFlags(JsonWriter out, String name, String[] flagNames, boolean... flags) throws IOException {
+        out.name(name).beginObject();
+        for (int i = 0; i < flagNames.length; i++) {
+            writeBoolean(out, flagNames[i], flags[i]);
+        }
+        out.endObject();
+    }
+
+    @Override
+    public MaterialConfigOptions read(JsonReader in) throws IOException {
+        if (isNull(in)) {
+            return null;
+        }
+        String name = null;
+        boolean material = false;
+        boolean fluid = false;
+        boolean traits = false;
+        boolean[] tool = new boolean[TOOL_FLAGS.length];
+        boolean[] ranged = new boolean[RANGED_FLAGS.length];
+        boolean[] armor = new boolean[ARMOR_FLAGS.length];
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "toolOptions":
+                    readFlags(in, TOOL_FLAGS, tool);
+                    break;
+                case "rangedOptions":
+                    readFlags(in, RANGED_FLAGS, ranged);
+                    break;
+                case "name":
+                    name = nextString(in);
+                    break;
+                case "material":
+                    material = nextBoolean(in, material);
+                    break;
+                case "fluid":
+                    fluid = nextBoolean(in, fluid);
+                    break;
+                case "traits":
+                    traits = nextBoolean(in, traits);
+                    break;
+                case "armorOptions":
+                    readFlags(in, ARMOR_FLAGS, armor);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return new MaterialConfigOptions(name, material, fluid, traits,
+                new ArmorMaterialConfigOptions.ArmorConfigOptions(armor[0], armor[1], armor[2], armor[3]),
+                new MaterialConfigOptions.ToolConfigOptions(tool[0], tool[1], tool[2], tool[3]),
+                new MaterialConfigOptions.RangedConfigOptions(ranged[0], ranged[1], ranged[2], ranged[3], ranged[4], ranged[5]));
+    }
+
+    private static void readFlags(JsonReader in, String[] flagNames, boolean[] flags) throws IOException {
+        if (isNull(in)) {
+            return;
+        }
+        in.beginObject();
+        while (in.hasNext()) {
+            int index = indexOf(flagNames, in.nextName());
+            if (0 <= index) {
+                flags[index] = nextBoolean(in, flags[index]);
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+    }
+
+    private static int indexOf(String[] names, String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
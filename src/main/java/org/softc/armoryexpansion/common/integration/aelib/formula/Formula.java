@@ -0,0 +1,37 @@
+package org.softc.armoryexpansion.common.integration.aelib.formula;
+
+/**
+ * An arithmetic expression compiled by {@link FormulaCompiler}.
+ * Variables are read from columns, so a whole batch of rows can be evaluated without allocating.
+ */
+public final class Formula {
+    private final String source;
+    private final Evaluator evaluator;
+    private final int columnMask;
+
+    Formula(String source, Evaluator evaluator, int columnMask) {
+        this.source = source;
+        this.evaluator = evaluator;
+        this.columnMask = columnMask;
+    }
+
+    public float evaluate(float[][] columns, int row) {
+        return this.evaluator.evaluate(columns, row);
+    }
+
+    /**
+     * @return a bit for every column the formula reads, by column index
+     */
+    public int getColumnMask() {
+        return this.columnMask;
+    }
+
+    public String getSource() {
+        return this.source;
+    }
+
+    @FunctionalInterface
+    interface Evaluator {
+        float evaluate(float[][] columns, int row);
+    }
+}
@@ -0,0 +1,279 @@
+package org.softc.armoryexpansion.common.integration.aelib.formula;
+
+import org.softc.armoryexpansion.common.util.Math;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles formulas such as {@code clamp(1.5 * base.defense * head.attack / baseHead.attack / mult, 0, 50)}
+ * into a tree of evaluators, once, instead of interpreting the text for every row.
+ * Constants are folded at compile time, and operations run in float arithmetic from left to right,
+ * so a formula gives the same results as the equivalent Java expression.
+ * Supported are {@code + - * /}, unary minus, parentheses and the functions {@code clamp(x, min, max)},
+ * {@code min(a, b)}, {@code max(a, b)} and {@code int(x)}, which truncates towards zero like a cast.
+ */
+public final class FormulaCompiler {
+    private final Map<String, Integer> columns;
+    private final Map<String, Float> constants;
+
+    /**
+     * @param columns the variables that are read per row, mapped to their column index
+     * @param constants the variables that have the same value for every row
+     */
+    public FormulaCompiler(Map<String, Integer> columns, Map<String, Float> constants) {
+        this.columns = columns;
+        this.constants = constants;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the formula is malformed or uses an unknown variable or function
+     */
+    public Formula compile(String source) {
+        Parser parser = new Parser(source);
+        Node node = parser.parseExpression();
+        parser.skipWhitespace();
+        if (parser.position < source.length()) {
+            throw parser.error("Unexpected '" + source.charAt(parser.position) + "'");
+        }
+        return new Formula(source, node.evaluator, node.columnMask);
+    }
+
+    private static class Node {
+        private final Formula.Evaluator evaluator;
+        private final int columnMask;
+        private final boolean constant;
+        private final float value;
+
+        private Node(Formula.Evaluator evaluator, int columnMask) {
+            this.evaluator = evaluator;
+            this.columnMask = columnMask;
+            this.constant = false;
+            this.value = 0;
+        }
+
+        private Node(float value) {
+            this.evaluator = (columns, row) -> value;
+            this.columnMask = 0;
+            this.constant = true;
+            this.value = value;
+        }
+    }
+
+    private class Parser {
+        private final String source;
+        private int position;
+
+        Parser(String source) {
+            this.source = source;
+        }
+
+        Node parseExpression() {
+            Node left = this.parseTerm();
+            for (char operator = this.peek(); '+' == operator || '-' == operator; operator = this.peek()) {
+                this.position++;
+                left = binary(operator, left, this.parseTerm());
+            }
+            return left;
+        }
+
+        private Node parseTerm() {
+            Node left = this.parseUnary();
+            for (char operator = this.peek(); '*' == operator || '/' == operator; operator = this.peek()) {
+                this.position++;
+                left = binary(operator, left, this.parseUnary());
+            }
+            return left;
+        }
+
+        private Node parseUnary() {
+            if ('-' == this.peek()) {
+                this.position++;
+                Node operand = this.parseUnary();
+                if (operand.constant) {
+                    return new Node(-operand.value);
+                }
+                Formula.Evaluator evaluator = operand.evaluator;
+                return new Node((columns, row) -> -evaluator.evaluate(columns, row), operand.columnMask);
+            }
+            return this.parsePrimary();
+        }
+
+        private Node parsePrimary() {
+            char next = this.peek();
+            if ('(' == next) {
+                this.position++;
+                Node node = this.parseExpression();
+                this.expect(')');
+                return node;
+            }
+            if (Character.isDigit(next) || '.' == next) {
+                return this.parseNumber();
+            }
+            if (Character.isLetter(next)) {
+                String name = this.parseName();
+                if ('(' == this.peek()) {
+                    this.position++;
+                    return this.parseCall(name);
+                }
+                return this.resolve(name);
+            }
+            throw this.error(0 == next ? "Unexpected end of formula" : "Unexpected '" + next + "'");
+        }
+
+        private Node parseNumber() {
+            int start = this.position;
+            while (this.position < this.source.length()
+                    && (Character.isDigit(this.source.charAt(this.position)) || '.' == this.source.charAt(this.position))) {
+                this.position++;
+            }
+            try {
+                return new Node(Float.parseFloat(this.source.substring(start, this.position)));
+            } catch (NumberFormatException e) {
+                throw this.error("Invalid number " + this.source.substring(start, this.position));
+            }
+        }
+
+        private String parseName() {
+            int start = this.position;
+            while (this.position < this.source.length()
+                    && (Character.isLetterOrDigit(this.source.charAt(this.position)) || '.' == this.source.charAt(this.position)
+                    || '_' == this.source.charAt(this.position))) {
+                this.position++;
+            }
+            return this.source.substring(start, this.position);
+        }
+
+        private Node resolve(String name) {
+            Float constant = FormulaCompiler.this.constants.get(name);
+            if (null != constant) {
+                return new Node(constant);
+            }
+            Integer column = FormulaCompiler.this.columns.get(name);
+            if (null == column) {
+                throw this.error("Unknown variable " + name);
+            }
+            int index = column;
+            return new Node((columns, row) -> columns[index][row], 1 << index);
+        }
+
+        private Node parseCall(String name) {
+            List<Node> arguments = new ArrayList<>();
+            if (')' != this.peek()) {
+                arguments.add(this.parseExpression());
+                while (',' == this.peek()) {
+                    this.position++;
+                    arguments.add(this.parseExpression());
+                }
+            }
+            this.expect(')');
+            switch (name) {
+                case "clamp":
+                    this.checkArguments(name, arguments, 3);
+                    return clamp(arguments.get(0), arguments.get(1), arguments.get(2));
+                case "min":
+                    this.checkArguments(name, arguments, 2);
+                    return binary('<', arguments.get(0), arguments.get(1));
+                case "max":
+                    this.checkArguments(name, arguments, 2);
+                    return binary('>', arguments.get(0), arguments.get(1));
+                case "int":
+                    this.checkArguments(name, arguments, 1);
+                    Node operand = arguments.get(0);
+                    if (operand.constant) {
+                        return new Node((int) operand.value);
+                    }
+                    Formula.Evaluator evaluator = operand.evaluator;
+                    return new Node((columns, row) -> (int) evaluator.evaluate(columns, row), operand.columnMask);
+                default:
+                    throw this.error("Unknown function " + name);
+            }
+        }
+
+        private void checkArguments(String name, List<Node> arguments, int count) {
+            if (count != arguments.size()) {
+                throw this.error(name + " takes " + count + " arguments, got " + arguments.size());
+            }
+        }
+
+        private void expect(char expected) {
+            if (expected != this.peek()) {
+                throw this.error("Expected '" + expected + "'");
+            }
+            this.position++;
+        }
+
+        private char peek() {
+            this.skipWhitespace();
+            return this.position < this.source.length() ? this.source.charAt(this.position) : 0;
+        }
+
+        void skipWhitespace() {
+            while (this.position < this.source.length() && Character.isWhitespace(this.source.charAt(this.position))) {
+                this.position++;
+            }
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + this.position + " in formula: " + this.source);
+        }
+    }
+
+    private static Node binary(char operator, Node left, Node right) {
+        if (left.constant && right.constant) {
+            return new Node(apply(operator, left.value, right.value));
+        }
+        Formula.Evaluator l = left.evaluator;
+        Formula.Evaluator r = right.evaluator;
+        int mask = left.columnMask | right.columnMask;
+        switch (operator) {
+            case '+':
+                return new Node((columns, row) -> l.evaluate(columns, row) + r.evaluate(columns, row), mask);
+            case '-':
+                return new Node((columns, row) -> l.evaluate(columns, row) - r.evaluate(columns, row), mask);
+            case '*':
+                return new Node((columns, row) -> l.evaluate(columns, row) * r.evaluate(columns, row), mask);
+            case '/':
+                return new Node((columns, row) -> l.evaluate(columns, row) / r.evaluate(columns, row), mask);
+            case '<':
+                return new Node((columns, row) -> java.lang.Math.min(l.evaluate(columns, row), r.evaluate(columns, row)), mask);
+            default:
+                return new Node((columns, row) -> java.lang.Math.max(l.evaluate(columns, row), r.evaluate(columns, row)), mask);
+        }
+    }
+
+    private static float apply(char operator, float left, float right) {
+        switch (operator) {
+            case '+':
+                return left + right;
+            case '-':
+                return left - right;
+            case '*':
+                return left * right;
+            case '/':
+                return left / right;
+            case '<':
+                return java.lang.Math.min(left, right);
+            default:
+                return java.lang.Math.max(left, right);
+        }
+    }
+
+    private static Node clamp(Node value, Node min, Node max) {
+        if (value.constant && min.constant && max.constant) {
+            return new Node(Math.clamp(value.value, min.value, max.value));
+        }
+        Formula.Evaluator v = value.evaluator;
+        int mask = value.columnMask | min.columnMask | max.columnMask;
+        if (min.constant && max.constant) {
+            // The usual case, bounds are read once instead of per row
+            float lower = min.value;
+            float upper = max.value;
+            return new Node((columns, row) -> Math.clamp(v.evaluate(columns, row), lower, upper), mask);
+        }
+        Formula.Evaluator lower = min.evaluator;
+        Formula.Evaluator upper = max.evaluator;
+        return new Node((columns, row) -> Math.clamp(v.evaluate(columns, row), lower.evaluate(columns, row), upper.evaluate(columns, row)), mask);
+    }
+}
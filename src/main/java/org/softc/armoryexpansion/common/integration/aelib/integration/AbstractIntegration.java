@@ -1,34 +1,53 @@
 package org.softc.armoryexpansion.common.integration.aelib.integration;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
 import net.minecraft.block.Block;
 import net.minecraft.item.Item;
-import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.event.RegistryEvent;
 import net.minecraftforge.fml.common.Loader;
+import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
-import net.minecraftforge.fml.common.eventhandler.EventPriority;
-import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.softc.armoryexpansion.ArmoryExpansion;
 import org.softc.armoryexpansion.common.integration.aelib.config.IntegrationConfig;
+import org.softc.armoryexpansion.common.integration.aelib.config.MaterialConfigFlags;
 import org.softc.armoryexpansion.common.integration.aelib.config.MaterialConfigOptions;
+import org.softc.armoryexpansion.common.integration.aelib.json.AelibGson;
+import org.softc.armoryexpansion.common.integration.aelib.json.BundledData;
+import org.softc.armoryexpansion.common.integration.aelib.json.JsonStreamLoader;
 import org.softc.armoryexpansion.common.integration.aelib.plugins.constructsarmory.material.ArmorToolMaterial;
 import org.softc.armoryexpansion.common.integration.aelib.plugins.constructsarmory.material.ArmorToolRangedMaterial;
 import org.softc.armoryexpansion.common.integration.aelib.plugins.general.material.IBasicMaterial;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.general.material.MaterialFluids;
 import org.softc.armoryexpansion.common.integration.aelib.plugins.general.oredictionary.BasicOreDictionary;
 import org.softc.armoryexpansion.common.integration.aelib.plugins.general.oredictionary.IOreDictionary;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.general.oredictionary.ItemResolver;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.general.oredictionary.OreDictionaryBatch;
 import org.softc.armoryexpansion.common.integration.aelib.plugins.general.traits.MaterialTraits;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.general.traits.TraitLookup;
 import org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.alloys.Alloy;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.alloys.AlloyCompiler;
 import org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.alloys.IAlloy;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.registry.MaterialRegistryIndex;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.smeltery.SmelteryRegistration;
+import org.softc.armoryexpansion.common.util.AtomicFileWriter;
 import org.softc.armoryexpansion.common.util.ConfigFileSuffixEnum;
+import org.softc.armoryexpansion.common.util.FilePrefetcher;
+import org.softc.armoryexpansion.common.util.LimitedInputStream;
 
 import java.io.*;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 public abstract class AbstractIntegration implements IIntegration {
     protected Logger logger;
@@ -42,8 +61,19 @@ public abstract class AbstractIntegration implements IIntegration {
     protected Map<String, IOreDictionary> oreDictionaryEntries = new HashMap<>();
     protected Map<String, IAlloy> alloys = new HashMap<>();
 
+    private static final int FLUID_FLAGS = MaterialConfigFlags.MATERIAL | MaterialConfigFlags.FLUID;
+    private static final int TRAITS_FLAGS = MaterialConfigFlags.MATERIAL | MaterialConfigFlags.TRAITS;
+
+    private static final ForkJoinPool LOADING_POOL = new ForkJoinPool(
+            java.lang.Math.min(ConfigFileSuffixEnum.values().length, Runtime.getRuntime().availableProcessors()));
+    private final Map<String, List<Object>> parsedRecords = new ConcurrentHashMap<>();
+
+    // Bumped whenever a record is added, so data that did not change since the last save is not saved again
+    private int dataVersion;
+    private int savedDataVersion = -1;
+
     protected AbstractIntegration() {
-        MinecraftForge.EVENT_BUS.register(this);
+        IntegrationDispatcher.register(this);
     }
 
     protected AbstractIntegration(String modId, String root) {
@@ -60,45 +90,109 @@ public abstract class AbstractIntegration implements IIntegration {
     // Forge Mod Loader events
     @Override
     public void preInit(FMLPreInitializationEvent event) {
+        if (!IntegrationDispatcher.begin(this, IntegrationDispatcher.Phase.PRE_INIT)) {
+            return;
+        }
+        IntegrationScheduler.await(this, event.getModConfigurationDirectory());
         this.logger = event.getModLog();
-        this.configDir = event.getModConfigurationDirectory().getPath();
         if(this.isLoadable()){
-            this.loadIntegrationData(this.configDir);
-            this.integrationConfigHelper.syncConfig(this.materials);
-            this.saveIntegrationData(this.configDir);
+            MaterialRegistryIndex.invalidate();
             this.registerMaterials();
             this.registerMaterialFluids();
         }
-        ArmoryExpansion.getConfig().save();
+        ArmoryExpansion.requestConfigSave();
+    }
+
+    @Override
+    public void prepare(File configDir) {
+        if (null == this.logger) {
+            // The same logger FML hands out to the integration's mod in preInit
+            Mod mod = this.getClass().getAnnotation(Mod.class);
+            this.logger = LogManager.getLogger(null == mod ? ArmoryExpansion.MODID + "-" + this.modId : mod.modid());
+        }
+        this.configDir = configDir.getPath();
+        if(this.isLoadable()){
+            MaterialBus.expect(this.modId);
+            this.prepareIntegrationData(this.configDir);
+        }
+    }
+
+    @Override
+    public Collection<File> getInputFiles(File configDir) {
+        boolean snapshotEnabled = this.isSnapshotEnabled() && ArmoryExpansion.isSnapshotCacheEnabled();
+        if (!this.isLoadable() || (snapshotEnabled && this.getSnapshotFile(configDir.getPath()).isFile())) {
+            // With a snapshot the files are most likely only hashed
+            return Collections.emptyList();
+        }
+        List<File> files = new ArrayList<>();
+        for (ConfigFileSuffixEnum suffix : ConfigFileSuffixEnum.values()) {
+            File file = new File(this.getFilePath(configDir, this.modId, suffix));
+            if (file.isFile()) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    @Override
+    public Collection<String> getProducedData() {
+        return Collections.singleton(IntegrationScheduler.MATERIALS);
+    }
+
+    @Override
+    public Collection<String> getConsumedData() {
+        return Collections.emptySet();
     }
 
     @Override
     public void init(FMLInitializationEvent event) {
+        if (!IntegrationDispatcher.begin(this, IntegrationDispatcher.Phase.INIT)) {
+            return;
+        }
         if(this.isLoadable()){
+            MaterialRegistryIndex.invalidate();
             this.oredictMaterials();
             this.updateMaterials();
+            ItemResolver.reportUnresolved(this.logger);
             this.registerMaterialTraits();
+            this.registerAlloys();
+        }
+        if (IntegrationDispatcher.hasAllBegun(IntegrationDispatcher.Phase.INIT)) {
+            registerOreDictionaryEntries(this.logger);
+            // Tinkers registered its own alloys in its init, and handles the IMC messages after this one
+            AlloyCompiler.registerQueued(this.logger);
+            this.logger.info(SmelteryRegistration.getSummary());
+        }
+        ArmoryExpansion.requestConfigSave();
+    }
+
+    /**
+     * Registers the ore dictionary entries all integrations added to the shared batch.
+     */
+    public static void registerOreDictionaryEntries(Logger logger) {
+        OreDictionaryBatch batch = OreDictionaryBatch.getShared();
+        if (!batch.isEmpty()) {
+            batch.register();
+            logger.info("Added " + batch.getAdded() + " ore dictionary entries for all integrations, skipped " + batch.getSkipped() + " already registered");
         }
-        ArmoryExpansion.getConfig().save();
     }
 
     @Override
     public void postInit(FMLPostInitializationEvent event){
-        // Used as a stub
+        IntegrationDispatcher.begin(this, IntegrationDispatcher.Phase.POST_INIT);
     }
 
-    @SubscribeEvent(priority = EventPriority.LOWEST)
+    @Override
     public void registerItems(RegistryEvent<Item> event){
         if(this.isLoadable()){
+            MaterialRegistryIndex.invalidate();
             this.registerMaterialStats();
 //            this.registerMaterialFluids();
             this.registerMaterialFluidsIMC();
-            this.registerAlloys();
         }
-        ArmoryExpansion.getConfig().save();
+        ArmoryExpansion.requestConfigSave();
     }
 
-    @SubscribeEvent(priority = EventPriority.LOWEST)
     @Override
     public void registerBlocks(RegistryEvent.Register<? super Block> event){
         if(ArmoryExpansion.isIntegrationEnabled(this.modId)) {
@@ -108,20 +202,214 @@ public abstract class AbstractIntegration implements IIntegration {
     }
 
     // Integration Data
+    /**
+     * Loads, syncs and saves the integration data, or restores all of it from the snapshot
+     * when none of the inputs changed since it was written, then publishes the materials on the {@link MaterialBus}.
+     */
+    protected void prepareIntegrationData(String path){
+        boolean snapshotEnabled = this.isSnapshotEnabled() && ArmoryExpansion.isSnapshotCacheEnabled();
+        if (!snapshotEnabled || !this.loadSnapshot(path)) {
+            this.loadIntegrationData(path);
+            this.syncConfig(this.materials);
+            this.saveIntegrationData(path);
+            if (snapshotEnabled) {
+                this.saveSnapshot(path);
+            }
+        }
+        MaterialBus.publish(this.modId, this.materials);
+    }
+
+    private boolean loadSnapshot(String path){
+        long start = System.nanoTime();
+        File file = this.getSnapshotFile(path);
+        IntegrationSnapshot snapshot;
+        try {
+            snapshot = IntegrationSnapshot.read(file, this.hashInputs(path));
+        } catch (IOException | RuntimeException e) {
+            this.logger.warn("Ignoring unreadable snapshot " + file.getPath() + ": " + e.getMessage());
+            return false;
+        }
+        if (null == snapshot) {
+            this.logger.info("Snapshot " + file.getPath() + " is missing or outdated, loading from JSON");
+            return false;
+        }
+        snapshot.getConfigOptions().forEach(this::loadConfigOptions);
+        snapshot.getMaterials().forEach(this::loadMaterial);
+        snapshot.getMaterialTraits().forEach(this::loadTrait);
+        snapshot.getOreDictionaryEntries().forEach(this::loadOreDictionaryEntry);
+        snapshot.getAlloys().forEach(this::loadAlloy);
+        this.logger.info("Loaded " + this.materials.size() + " materials from snapshot " + file.getPath()
+                + " in " + toMillis(System.nanoTime() - start) + " ms");
+        return true;
+    }
+
+    private void saveSnapshot(String path){
+        File file = this.getSnapshotFile(path);
+        if (!IntegrationSnapshot.isSupported(this.materials.values(), this.oreDictionaryEntries.values(), this.alloys.values())) {
+            this.logger.info("Integration data uses custom types, not writing a snapshot");
+            file.delete();
+            return;
+        }
+        try {
+            // Hashed after saving, so the key matches the files the next launch reads
+            IntegrationSnapshot.write(file, this.hashInputs(path), this.materials.values(), this.materialTraits.values(),
+                    this.oreDictionaryEntries.values(), this.alloys.values(), this.integrationConfigHelper.getIntegrationMaterials().values());
+        } catch (IOException e) {
+            e.printStackTrace();
+            file.delete();
+        }
+    }
+
+    /**
+     * Hashes everything the integration data is derived from: the local JSON files, the bundled sources
+     * and the settings that change how they are read.
+     */
+    private byte[] hashInputs(String path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        digest.update((ArmoryExpansion.VERSION + "|" + this.modId + "|" + ArmoryExpansion.getBoundedInputStreamMaxSize())
+                .getBytes(StandardCharsets.UTF_8));
+        File dir = new File(path);
+        for (ConfigFileSuffixEnum suffix : ConfigFileSuffixEnum.values()) {
+            File file = new File(this.getFilePath(dir, this.modId, suffix));
+            hashInput(digest, file.isFile() ? new FileInputStream(file) : null);
+            String sourcePath = this.getSourcePath(suffix);
+            hashInput(digest, null == sourcePath ? null : BundledData.open(this.getClass().getClassLoader(), sourcePath));
+        }
+        return digest.digest();
+    }
+
+    private static void hashInput(MessageDigest digest, InputStream stream) throws IOException {
+        if (null == stream) {
+            // Keeps a missing input distinct from an empty one
+            digest.update((byte) 0);
+            return;
+        }
+        digest.update((byte) 1);
+        byte[] buffer = new byte[8192];
+        long length = 0;
+        try (InputStream in = stream) {
+            for (int read = in.read(buffer); -1 != read; read = in.read(buffer)) {
+                digest.update(buffer, 0, read);
+                length += read;
+            }
+        }
+        digest.update(Long.toString(length).getBytes(StandardCharsets.UTF_8));
+    }
+
+    protected File getSnapshotFile(String path){
+        return new File(path + "/" + this.root + "/.cache/" + this.modId + ".bin");
+    }
+
+    /**
+     * @return whether all of the integration data comes from its JSON inputs, integrations that derive data
+     * from other mods at runtime must not be restored from a snapshot
+     */
+    protected boolean isSnapshotEnabled() {
+        return true;
+    }
+
     protected void loadIntegrationData(String path){
-        this.loadConfig(path);
-        this.loadMaterials(path);
-        this.loadTraits(path);
-        this.loadOreDictionaryEntries(path);
-        this.loadAlloys(path);
+        if (ArmoryExpansion.isParallelLoadingEnabled()) {
+            this.parseIntegrationDataInParallel(path);
+        }
+        try {
+            this.timed("config", () -> this.loadConfig(path));
+            this.timed("materials", () -> this.loadMaterials(path));
+            this.timed("traits", () -> this.loadTraits(path));
+            this.timed("ore dictionary entries", () -> this.loadOreDictionaryEntries(path));
+            this.timed("alloys", () -> this.loadAlloys(path));
+        } finally {
+            // Records that were parsed but not consumed, such as sources an integration replaces, are dropped here
+            this.parsedRecords.clear();
+        }
+    }
+
+    /**
+     * Reads and parses the local JSON file and the bundled source of every category at the same time.
+     * The parsed records are kept per origin and merged later on the calling thread by the regular
+     * load methods, so JSON-over-source precedence is the same as in sequential loading.
+     */
+    private void parseIntegrationDataInParallel(String path){
+        File dir = new File(path);
+        // Forge's configuration is not thread-safe, so it is read before any task starts
+        long maxSize = ArmoryExpansion.getBoundedInputStreamMaxSize();
+        long start = System.nanoTime();
+        Map<ConfigFileSuffixEnum, ForkJoinTask<Long>> tasks = new EnumMap<>(ConfigFileSuffixEnum.class);
+        for (ConfigFileSuffixEnum suffix : ConfigFileSuffixEnum.values()) {
+            tasks.put(suffix, LOADING_POOL.submit(() -> this.parseCategory(dir, suffix, maxSize)));
+        }
+        tasks.forEach((suffix, task) ->
+                this.logger.info("Parsed " + suffix.getSuffix().substring(1) + " in " + toMillis(task.join()) + " ms"));
+        this.logger.info("Parsed all integration data in parallel in " + toMillis(System.nanoTime() - start) + " ms");
+    }
+
+    private long parseCategory(File dir, ConfigFileSuffixEnum suffix, long maxSize){
+        long start = System.nanoTime();
+        Class<?> type = getRecordType(suffix);
+
+        List<Object> jsonRecords = new ArrayList<>();
+        String filePath = this.getFilePath(dir, this.modId, suffix);
+        this.readJsonFile(filePath, type, jsonRecords::add);
+        this.parsedRecords.put(filePath, jsonRecords);
+
+        String sourcePath = this.getSourcePath(suffix);
+        if (null != sourcePath) {
+            List<Object> sourceRecords = new ArrayList<>();
+            this.readJsonResource(sourcePath, maxSize, type, sourceRecords::add);
+            this.parsedRecords.put(sourcePath, sourceRecords);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static Class<?> getRecordType(ConfigFileSuffixEnum suffix){
+        switch (suffix) {
+            case CONFIG_SUFFIX:
+                return MaterialConfigOptions.class;
+            case ALLOYS_SUFFIX:
+                return Alloy.class;
+            case ORE_DICT_ENTRIES_SUFFIX:
+                return BasicOreDictionary.class;
+            case TRAITS_SUFFIX:
+                return MaterialTraits.class;
+            default:
+                return ArmorToolRangedMaterial.class;
+        }
+    }
+
+    private void timed(String category, Runnable step){
+        long start = System.nanoTime();
+        step.run();
+        this.logger.info("Loaded " + category + " in " + toMillis(System.nanoTime() - start) + " ms");
+    }
+
+    protected static long toMillis(long nanos){
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    protected static ForkJoinPool getLoadingPool(){
+        return LOADING_POOL;
+    }
+
+    protected void syncConfig(Map<String, ? extends IBasicMaterial> materials){
+        this.dataVersion += this.integrationConfigHelper.syncConfig(materials);
     }
 
     protected void saveIntegrationData(String path){
+        if (this.savedDataVersion == this.dataVersion) {
+            this.logger.info("Integration data did not change since it was last saved");
+            return;
+        }
         this.saveConfig(path);
         this.saveMaterials(path);
         this.saveTraits(path);
         this.saveOreDictionaryEntries(path);
         this.saveAlloys(path);
+        this.savedDataVersion = this.dataVersion;
     }
 
     // Traits
@@ -139,37 +427,27 @@ public abstract class AbstractIntegration implements IIntegration {
 
     protected void saveTraitsToJson(File dir, String fileName, boolean forceCreate){
         if(!this.materialTraits.values().isEmpty() || forceCreate) {
-            Gson gson = new GsonBuilder().setPrettyPrinting().setLenient().create();
             File output = new File(this.getFilePath(dir, fileName, ConfigFileSuffixEnum.TRAITS_SUFFIX));
-            output.getParentFile().mkdirs();
-            try (FileWriter writer = new FileWriter(output)){
-                writer.write(gson.toJson(this.materialTraits.values()));
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+            this.writeJsonFile(output, AelibGson.getGson().toJson(this.materialTraits.values()));
         }
     }
 
     protected void loadTraits(MaterialTraits[] jsonMaterials){
         if(null != jsonMaterials) {
             for (MaterialTraits material : jsonMaterials) {
-                this.materialTraits.putIfAbsent(material.getIdentifier(), material);
+                this.loadTrait(material);
             }
         }
     }
 
-    protected void loadTraitsFromJson(File dir, String fileName){
-        Gson gson = new GsonBuilder().setPrettyPrinting().setLenient().create();
-        MaterialTraits[] jsonMaterials = new MaterialTraits[0];
-        try {
-            File input = new File(this.getFilePath(dir, fileName, ConfigFileSuffixEnum.TRAITS_SUFFIX));
-            if(input.exists()){
-                jsonMaterials = gson.fromJson(new FileReader(input), MaterialTraits[].class);
-            }
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
+    protected void loadTrait(MaterialTraits material){
+        if (null == this.materialTraits.putIfAbsent(material.getIdentifier(), material)) {
+            this.dataVersion++;
         }
-        this.loadTraits(jsonMaterials);
+    }
+
+    protected void loadTraitsFromJson(File dir, String fileName){
+        this.loadJsonFile(this.getFilePath(dir, fileName, ConfigFileSuffixEnum.TRAITS_SUFFIX), MaterialTraits.class, this::loadTrait);
     }
 
     protected abstract void loadTraitsFromSource();
@@ -189,37 +467,27 @@ public abstract class AbstractIntegration implements IIntegration {
 
     protected void saveMaterialsToJson(File dir, String fileName, boolean forceCreate){
         if(!this.materials.values().isEmpty() || forceCreate) {
-            Gson gson = new GsonBuilder().setPrettyPrinting().setLenient().create();
             File output = new File(this.getFilePath(dir, fileName, ConfigFileSuffixEnum.MATERIALS_SUFFIX));
-            output.getParentFile().mkdirs();
-            try (FileWriter writer = new FileWriter(output)){
-                writer.write(gson.toJson(this.materials.values()));
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+            this.writeJsonFile(output, AelibGson.getGson().toJson(this.materials.values()));
         }
     }
 
     protected void loadMaterials(ArmorToolMaterial[] jsonMaterials){
         if(null != jsonMaterials) {
             for (ArmorToolMaterial material : jsonMaterials) {
-                this.materials.putIfAbsent(material.getIdentifier(), material);
+                this.loadMaterial(material);
             }
         }
     }
 
-    protected void loadMaterialsFromJson(File dir, String fileName){
-        Gson gson = new GsonBuilder().setPrettyPrinting().setLenient().create();
-        ArmorToolRangedMaterial[] jsonMaterials = new ArmorToolRangedMaterial[0];
-        try {
-            File input = new File(this.getFilePath(dir, fileName, ConfigFileSuffixEnum.MATERIALS_SUFFIX));
-            if(input.exists()){
-                jsonMaterials = gson.fromJson(new FileReader(input), ArmorToolRangedMaterial[].class);
-            }
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
+    protected void loadMaterial(IBasicMaterial material){
+        if (null == this.materials.putIfAbsent(material.getIdentifier(), material)) {
+            this.dataVersion++;
         }
-        this.loadMaterials(jsonMaterials);
+    }
+
+    protected void loadMaterialsFromJson(File dir, String fileName){
+        this.loadJsonFile(this.getFilePath(dir, fileName, ConfigFileSuffixEnum.MATERIALS_SUFFIX), ArmorToolRangedMaterial.class, this::loadMaterial);
     }
 
     protected abstract void loadMaterialsFromSource();
@@ -239,37 +507,27 @@ public abstract class AbstractIntegration implements IIntegration {
 
     protected void saveOreDictionaryEntriesToJson(File dir, String fileName, boolean forceCreate) {
         if(!this.oreDictionaryEntries.values().isEmpty() || forceCreate) {
-            Gson gson = new GsonBuilder().setPrettyPrinting().setLenient().create();
             File output = new File(this.getFilePath(dir, fileName, ConfigFileSuffixEnum.ORE_DICT_ENTRIES_SUFFIX));
-            output.getParentFile().mkdirs();
-            try (FileWriter writer = new FileWriter(output)) {
-                writer.write(gson.toJson(this.oreDictionaryEntries.values()));
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+            this.writeJsonFile(output, AelibGson.getGson().toJson(this.oreDictionaryEntries.values()));
         }
     }
 
     protected void loadOreDictionaryEntries(IOreDictionary[] jsonOreDicts) {
         if(null != jsonOreDicts) {
             for (IOreDictionary iOreDictionary : jsonOreDicts) {
-                this.oreDictionaryEntries.putIfAbsent(iOreDictionary.getIdentifier(), iOreDictionary);
+                this.loadOreDictionaryEntry(iOreDictionary);
             }
         }
     }
 
-    protected void loadOreDictionaryEntriesFromJson(File dir, String fileName) {
-        Gson gson = new GsonBuilder().setPrettyPrinting().setLenient().create();
-        IOreDictionary[] jsonMaterials = new BasicOreDictionary[0];
-        try {
-            File input = new File(this.getFilePath(dir, fileName, ConfigFileSuffixEnum.ORE_DICT_ENTRIES_SUFFIX));
-            if(input.exists()){
-                jsonMaterials = gson.fromJson(new FileReader(input), BasicOreDictionary[].class);
-            }
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
+    protected void loadOreDictionaryEntry(IOreDictionary iOreDictionary) {
+        if (null == this.oreDictionaryEntries.putIfAbsent(iOreDictionary.getIdentifier(), iOreDictionary)) {
+            this.dataVersion++;
         }
-        this.loadOreDictionaryEntries(jsonMaterials);
+    }
+
+    protected void loadOreDictionaryEntriesFromJson(File dir, String fileName) {
+        this.loadJsonFile(this.getFilePath(dir, fileName, ConfigFileSuffixEnum.ORE_DICT_ENTRIES_SUFFIX), BasicOreDictionary.class, this::loadOreDictionaryEntry);
     }
 
     protected abstract void loadOreDictionaryEntriesFromSource();
@@ -289,37 +547,30 @@ public abstract class AbstractIntegration implements IIntegration {
 
     protected void saveAlloysToJson(File dir, String fileName, boolean forceCreate){
         if(!this.alloys.values().isEmpty() || forceCreate) {
-            Gson gson = new GsonBuilder().setPrettyPrinting().setLenient().create();
             File output = new File(this.getFilePath(dir, fileName, ConfigFileSuffixEnum.ALLOYS_SUFFIX));
-            output.getParentFile().mkdirs();
-            try (FileWriter writer = new FileWriter(output)) {
-                writer.write(gson.toJson(this.alloys.values()));
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+            this.writeJsonFile(output, AelibGson.getGson().toJson(this.alloys.values()));
         }
     }
 
     protected void loadAlloys(Alloy[] jsonAlloys){
         if(null != jsonAlloys) {
             for (Alloy a : jsonAlloys) {
-                this.alloys.putIfAbsent(a.getName(), a);
+                this.loadAlloy(a);
             }
         }
     }
 
-    protected void loadAlloysFromJson(File dir, String fileName){
-        Gson gson = new GsonBuilder().setPrettyPrinting().setLenient().create();
-        Alloy[] jsonAlloys = new Alloy[0];
-        try {
-            File input = new File(this.getFilePath(dir, fileName, ConfigFileSuffixEnum.ALLOYS_SUFFIX));
-            if(input.exists()){
-                jsonAlloys = gson.fromJson(new FileReader(input), Alloy[].class);
-            }
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
+    protected void loadAlloy(IAlloy alloy){
+        IAlloy current = this.alloys.putIfAbsent(alloy.getName(), alloy);
+        if (null == current) {
+            this.dataVersion++;
+        } else if (current != alloy && !AelibGson.getGson().toJson(current).equals(AelibGson.getGson().toJson(alloy))) {
+            this.logger.warn("Ignored a second alloy recipe for {" + alloy.getName() + "}, the one loaded first is kept");
         }
-        this.loadAlloys(jsonAlloys);
+    }
+
+    protected void loadAlloysFromJson(File dir, String fileName){
+        this.loadJsonFile(this.getFilePath(dir, fileName, ConfigFileSuffixEnum.ALLOYS_SUFFIX), Alloy.class, this::loadAlloy);
     }
 
     protected abstract void loadAlloysFromSource();
@@ -339,40 +590,30 @@ public abstract class AbstractIntegration implements IIntegration {
 
     protected void saveConfigToJson(File dir, String fileName, boolean forceCreate){
         if(!this.materials.values().isEmpty() || forceCreate) {
-            Gson gson = new GsonBuilder().setPrettyPrinting().setLenient().create();
             File output = new File(this.getFilePath(dir, fileName, ConfigFileSuffixEnum.CONFIG_SUFFIX));
-            output.getParentFile().mkdirs();
-            try (FileWriter writer = new FileWriter(output)) {
-                writer.write(gson.toJson(this.integrationConfigHelper.getIntegrationMaterials().values().toArray()));
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+            this.writeJsonFile(output, AelibGson.getGson().toJson(this.integrationConfigHelper.getIntegrationMaterials().values().toArray()));
         }
     }
 
     protected void loadConfig(MaterialConfigOptions[] materialConfig){
         if(null != materialConfig){
-            if (null == this.integrationConfigHelper){
-                this.integrationConfigHelper = new IntegrationConfig();
-            }
             for(MaterialConfigOptions material : materialConfig){
-                this.integrationConfigHelper.insertMaterialConfigOptions(material);
+                this.loadConfigOptions(material);
             }
         }
     }
 
-    protected void loadConfigFromJson(File dir, String fileName){
-        Gson gson = new GsonBuilder().setPrettyPrinting().setLenient().create();
-        MaterialConfigOptions[] jsonConfig = new MaterialConfigOptions[0];
-        try {
-            File input = new File(this.getFilePath(dir, fileName, ConfigFileSuffixEnum.CONFIG_SUFFIX));
-            if(input.exists()){
-                jsonConfig = gson.fromJson(new FileReader(input), MaterialConfigOptions[].class);
-            }
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
+    protected void loadConfigOptions(MaterialConfigOptions material){
+        if (null == this.integrationConfigHelper){
+            this.integrationConfigHelper = new IntegrationConfig();
+        }
+        if (this.integrationConfigHelper.insertMaterialConfigOptions(material)) {
+            this.dataVersion++;
         }
-        this.loadConfig(jsonConfig);
+    }
+
+    protected void loadConfigFromJson(File dir, String fileName){
+        this.loadJsonFile(this.getFilePath(dir, fileName, ConfigFileSuffixEnum.CONFIG_SUFFIX), MaterialConfigOptions.class, this::loadConfigOptions);
     }
 
     protected abstract void loadConfigFromSource();
@@ -380,11 +621,13 @@ public abstract class AbstractIntegration implements IIntegration {
     // IIntegration implementations
     @Override
     public void oredictMaterials() {
+        // Registered once for all integrations, after the last one's init
+        OreDictionaryBatch batch = OreDictionaryBatch.getShared();
         this.materials.values().forEach(material -> {
-            if (this.isMaterialEnabled(material.getIdentifier())){
+            if (MaterialConfigFlags.has(this.getMaterialFlags(material.getIdentifier()), MaterialConfigFlags.MATERIAL)){
                 IOreDictionary oreDictionary = this.oreDictionaryEntries.get(material.getIdentifier());
                 if (null != oreDictionary)
-                    oreDictionary.registerOreDict();
+                    batch.add(oreDictionary.getIdentifier(), oreDictionary.getItemStacks());
                 this.logger.info("Oredicted material {" + material.getIdentifier() + "};");
             }
         });
@@ -393,7 +636,7 @@ public abstract class AbstractIntegration implements IIntegration {
     @Override
     public void registerMaterials() {
         this.materials.values().forEach(material -> {
-            if (material.registerTinkersMaterial(this.isMaterialEnabled(material.getIdentifier()))) {
+            if (material.registerTinkersMaterial(MaterialConfigFlags.has(this.getMaterialFlags(material.getIdentifier()), MaterialConfigFlags.MATERIAL))) {
                 this.logger.info("Registered tinker's material {" + material.getIdentifier() + "};");
             }
         });
@@ -402,7 +645,7 @@ public abstract class AbstractIntegration implements IIntegration {
     @Override
     public void registerMaterialFluids() {
         this.materials.values().forEach(material -> {
-            if (material.registerTinkersFluid(this.isMaterialEnabled(material.getIdentifier()) && this.isMaterialFluidEnabled(material.getIdentifier()))) {
+            if (material.registerTinkersFluid(MaterialConfigFlags.hasAll(this.getMaterialFlags(material.getIdentifier()), FLUID_FLAGS))) {
                 this.logger.info("Registered fluid for material {" + material.getIdentifier() + "};");
             }
         });
@@ -410,9 +653,10 @@ public abstract class AbstractIntegration implements IIntegration {
 
     @Override
     public void registerMaterialFluidsIMC(){
+        boolean direct = this.isDirectSmelteryRegistrationEnabled();
         this.materials.values().forEach(material -> {
-            if (material.registerTinkersFluidIMC(this.isMaterialEnabled(material.getIdentifier()) && this.isMaterialFluidEnabled(material.getIdentifier()))) {
-                this.logger.info("Sent IMC for tinker's fluid {" + material.getFluidName() + "};");
+            if (material.registerTinkersSmeltery(MaterialConfigFlags.hasAll(this.getMaterialFlags(material.getIdentifier()), FLUID_FLAGS), direct)) {
+                this.logger.info("Integrated tinker's fluid {" + material.getFluidName() + "};");
             }
         });
     }
@@ -420,36 +664,44 @@ public abstract class AbstractIntegration implements IIntegration {
     @Override
     public void registerFluidBlocks(RegistryEvent.Register<? super Block> event){
         this.materials.values().forEach(material -> {
-            if(material.isCastable()){
-                // TODO Fix this!!
+            // Each fluid registered by aelib gets one block, disabled fluids and those another mod registered first get none
+            if(material.isCastable() && MaterialFluids.claimFluidBlock(material.getFluidName())){
                 event.getRegistry().register(material.getFluidBlock());
                 this.logger.info("Registered fluid block for material {" + material.getIdentifier() + "};");
             }
         });
+        this.logger.info(MaterialFluids.getSummary());
     }
 
     @Override
     public void registerAlloys(){
-        this.alloys.values().forEach(a -> {
-            a.registerTiCAlloy();
-            this.logger.info("Sent IMC for tinker's alloy {" + a.getName() + "};");
-        });
+        // Registered together with the alloys of all integrations, after the last one's init
+        AlloyCompiler.queue(this.modId, this.alloys.values(), this.isDirectSmelteryRegistrationEnabled());
+    }
+
+    /**
+     * @return whether smeltery integrations and alloys are registered with Tinkers directly rather than through IMC
+     */
+    protected boolean isDirectSmelteryRegistrationEnabled() {
+        return ArmoryExpansion.isDirectSmelteryRegistrationEnabled(this.modId);
     }
 
     @Override
     public void registerMaterialStats() {
-        this.materials.values().forEach(material -> {
-            if (material.registerTinkersMaterialStats(this.getProperties(material))) {
-                this.logger.info("Registered stats for tinker's material {" + material.getIdentifier() + "};");
-            }
-        });
+        this.materials.values().forEach(this::registerMaterialStats);
+    }
+
+    protected void registerMaterialStats(IBasicMaterial material) {
+        if (material.registerTinkersMaterialStats(this.getMaterialFlags(material.getIdentifier()))) {
+            this.logger.info("Registered stats for tinker's material {" + material.getIdentifier() + "};");
+        }
     }
 
     @Override
     public void updateMaterials() {
         this.materials.values().forEach(material -> {
             IOreDictionary oreDictionaryEntry = this.oreDictionaryEntries.get(material.getIdentifier());
-            if (null != oreDictionaryEntry && oreDictionaryEntry.updateTinkersMaterial(this.isMaterialEnabled(material.getIdentifier()))) {
+            if (null != oreDictionaryEntry && oreDictionaryEntry.updateTinkersMaterial(MaterialConfigFlags.has(this.getMaterialFlags(material.getIdentifier()), MaterialConfigFlags.MATERIAL))) {
                 this.logger.info("Updated tinker's material {" + material.getIdentifier() + "};");
             }
         });
@@ -458,10 +710,11 @@ public abstract class AbstractIntegration implements IIntegration {
     @Override
     public void registerMaterialTraits() {
         this.materialTraits.values().forEach(traits -> {
-            if (traits.registerTinkersMaterialTraits(this.isMaterialEnabled(traits.getIdentifier()) && this.integrationConfigHelper.traitsEnabled(traits.getIdentifier()))) {
+            if (traits.registerTinkersMaterialTraits(MaterialConfigFlags.hasAll(this.getMaterialFlags(traits.getIdentifier()), TRAITS_FLAGS))) {
                 this.logger.info("Registered traits for tinker's traits {" + traits.getIdentifier() + "};");
             }
         });
+        TraitLookup.reportUnknown(this.logger);
     }
 
     // Helpers
@@ -474,14 +727,88 @@ public abstract class AbstractIntegration implements IIntegration {
     public boolean isMaterialFluidEnabled(String material){
         return this.integrationConfigHelper.fluidEnabled(material);
     }
-    protected MaterialConfigOptions getProperties(IBasicMaterial material) {
-        return this.integrationConfigHelper.getSafeMaterialConfigOptions(material.getIdentifier());
+    /**
+     * @return the compiled {@link MaterialConfigFlags} of the material
+     */
+    protected int getMaterialFlags(String material){
+        return this.integrationConfigHelper.getFlags(material);
+    }
+
+    protected <T> void loadJsonFile(String path, Class<T> type, Consumer<? super T> consumer){
+        if (!this.loadParsedRecords(path, type, consumer)) {
+            this.readJsonFile(path, type, consumer);
+        }
+    }
+
+    protected <T> void loadJsonResource(String path, long maxSize, Class<T> type, Consumer<? super T> consumer){
+        if (!this.loadParsedRecords(path, type, consumer)) {
+            this.readJsonResource(path, maxSize, type, consumer);
+        }
+    }
+
+    private <T> boolean loadParsedRecords(String origin, Class<T> type, Consumer<? super T> consumer){
+        List<Object> records = this.parsedRecords.remove(origin);
+        if (null == records) {
+            return false;
+        }
+        for (Object record : records) {
+            consumer.accept(type.cast(record));
+        }
+        return true;
+    }
+
+    private <T> void readJsonFile(String path, Class<T> type, Consumer<? super T> consumer){
+        File input = new File(path);
+        if(input.exists()){
+            try {
+                // Local files are under the user's control, so they are not size limited
+                this.loadJson(FilePrefetcher.open(input), path, 0, type, consumer);
+            } catch (FileNotFoundException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private <T> void readJsonResource(String path, long maxSize, Class<T> type, Consumer<? super T> consumer){
+        InputStream stream = BundledData.open(this.getClass().getClassLoader(), path);
+        if (null != stream) {
+            this.loadJson(stream, path, maxSize, type, consumer);
+        }
+    }
+
+    protected <T> void loadJson(InputStream stream, String origin, long maxSize, Class<T> type, Consumer<? super T> consumer){
+        try (Reader reader = new BufferedReader(new InputStreamReader(new LimitedInputStream(stream, maxSize, origin), StandardCharsets.UTF_8))) {
+            int count = JsonStreamLoader.load(reader, type, consumer);
+            this.logger.debug("Loaded " + count + " records from " + origin);
+        } catch (IOException e) {
+            throw new JsonIOException("Could not load " + origin + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes the file only if its content changed, so unchanged configs are not rewritten on every launch.
+     */
+    protected void writeJsonFile(File output, String json){
+        try {
+            if (!AtomicFileWriter.writeIfChanged(output, json)) {
+                this.logger.debug("Skipped writing unchanged " + output.getPath());
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
     protected String getFilePath(File dir, String fileName, ConfigFileSuffixEnum suffix) {
         return dir.getPath()+ "/" + this.root + "/" + fileName + "/" + fileName + suffix.getSuffix() + ".json";
     }
 
+    /**
+     * @return the classpath location of the bundled data for the given category, or null if the integration has none
+     */
+    protected String getSourcePath(ConfigFileSuffixEnum suffix) {
+        return null;
+    }
+
     protected boolean enableForceJsonCreation() {
         return false;
     }
@@ -7,7 +7,24 @@ import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
 
+import java.io.File;
+import java.util.Collection;
+
 public interface IIntegration {
+    /**
+     * Loads the integration data without touching any registry, it may run on a worker thread before preInit.
+     */
+    void prepare(File configDir);
+
+    /**
+     * @return the local files the integration is going to read while loading
+     */
+    Collection<File> getInputFiles(File configDir);
+
+    Collection<String> getProducedData();
+
+    Collection<String> getConsumedData();
+
     void preInit(FMLPreInitializationEvent event);
 
     void init(FMLInitializationEvent event);
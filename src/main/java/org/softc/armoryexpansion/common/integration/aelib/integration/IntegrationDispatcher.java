@@ -0,0 +1,117 @@
+package org.softc.armoryexpansion.common.integration.aelib.integration;
+
+import net.minecraft.block.Block;
+import net.minecraft.item.Item;
+import net.minecraftforge.event.RegistryEvent;
+import net.minecraftforge.fml.common.eventhandler.EventPriority;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The only event bus subscriber for the integrations' registry phases. Integrations sign up when they are constructed,
+ * which Forge does in mod load order, and every phase runs each of them exactly once in that order.
+ * The lifecycle phases stay with Forge, each integration being its own mod, but go through {@link #begin} as well
+ * so calls beyond the first are skipped and show up in {@link #logInvocations(Logger)}.
+ */
+public final class IntegrationDispatcher {
+    public enum Phase {
+        PRE_INIT("preInit"),
+        REGISTER_BLOCKS("registerBlocks"),
+        REGISTER_ITEMS("registerItems"),
+        INIT("init"),
+        POST_INIT("postInit");
+
+        private final String name;
+
+        Phase(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String toString() {
+            return this.name;
+        }
+    }
+
+    private static final IntegrationDispatcher INSTANCE = new IntegrationDispatcher();
+
+    private final Map<IIntegration, int[]> invocations = new LinkedHashMap<>();
+
+    private IntegrationDispatcher() {
+    }
+
+    public static IntegrationDispatcher getInstance() {
+        return INSTANCE;
+    }
+
+    public static synchronized void register(IIntegration integration) {
+        INSTANCE.invocations.putIfAbsent(integration, new int[Phase.values().length]);
+    }
+
+    /**
+     * Counts the invocation of the phase for the integration.
+     * @return whether this is its first invocation, and the phase should run
+     */
+    public static synchronized boolean begin(IIntegration integration, Phase phase) {
+        int[] counts = INSTANCE.invocations.computeIfAbsent(integration, i -> new int[Phase.values().length]);
+        return 1 == ++counts[phase.ordinal()];
+    }
+
+    /**
+     * @return whether every integration has begun the phase, which is then running for the last one
+     */
+    public static synchronized boolean hasAllBegun(Phase phase) {
+        for (int[] counts : INSTANCE.invocations.values()) {
+            if (0 == counts[phase.ordinal()]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public void registerBlocks(RegistryEvent.Register<Block> event) {
+        for (IIntegration integration : getIntegrations()) {
+            if (begin(integration, Phase.REGISTER_BLOCKS)) {
+                integration.registerBlocks(event);
+            }
+        }
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public void registerItems(RegistryEvent.Register<Item> event) {
+        for (IIntegration integration : getIntegrations()) {
+            if (begin(integration, Phase.REGISTER_ITEMS)) {
+                integration.registerItems(event);
+            }
+        }
+    }
+
+    public static synchronized void logInvocations(Logger logger) {
+        INSTANCE.invocations.forEach((integration, counts) -> {
+            StringBuilder builder = new StringBuilder(integration.getClass().getSimpleName()).append(':');
+            boolean repeated = false;
+            for (Phase phase : Phase.values()) {
+                builder.append(' ').append(phase).append(' ').append(counts[phase.ordinal()]);
+                repeated |= 1 < counts[phase.ordinal()];
+            }
+            if (repeated) {
+                logger.warn(builder.append(", repeated invocations were skipped").toString());
+            } else {
+                logger.info(builder.toString());
+            }
+        });
+    }
+
+    /**
+     * @return the integrations in mod order, copied so integrations constructed by a phase do not break the iteration
+     */
+    public static synchronized List<IIntegration> getIntegrations() {
+        return new ArrayList<>(INSTANCE.invocations.keySet());
+    }
+}
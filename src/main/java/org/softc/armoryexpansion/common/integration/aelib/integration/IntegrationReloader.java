@@ -0,0 +1,168 @@
+package org.softc.armoryexpansion.common.integration.aelib.integration;
+
+import net.minecraft.server.MinecraftServer;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Reloads integration data while the server is running.
+ * Requests are debounced and coalesced, the files are parsed on a background thread
+ * and only the resulting changes are applied on the server thread.
+ */
+public class IntegrationReloader<T> {
+    private static final long DEBOUNCE_MILLIS = 500;
+
+    private final String name;
+    private final Path dir;
+    private final Predicate<String> fileFilter;
+    private final Supplier<T> parser;
+    private final Function<T, String> applier;
+    private final Logger logger;
+
+    private final List<Consumer<String>> listeners = new ArrayList<>();
+    private MinecraftServer server;
+    private ScheduledExecutorService executor;
+    private ScheduledFuture<?> pending;
+    private WatchService watchService;
+
+    /**
+     * @param parser reads the files, called on the reload thread
+     * @param applier applies the parsed data and returns a summary, called on the server thread
+     */
+    public IntegrationReloader(String name, Path dir, Predicate<String> fileFilter, Supplier<T> parser, Function<T, String> applier, Logger logger) {
+        this.name = name;
+        this.dir = dir;
+        this.fileFilter = fileFilter;
+        this.parser = parser;
+        this.applier = applier;
+        this.logger = logger;
+    }
+
+    public synchronized void start(MinecraftServer server, boolean watch) {
+        this.stop();
+        this.server = server;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, this.name + " reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (watch) {
+            this.startWatching();
+        }
+    }
+
+    public synchronized void stop() {
+        if (null != this.watchService) {
+            try {
+                this.watchService.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            this.watchService = null;
+        }
+        if (null != this.executor) {
+            this.executor.shutdownNow();
+            this.executor = null;
+        }
+        this.pending = null;
+        this.listeners.clear();
+        this.server = null;
+    }
+
+    /**
+     * Schedules a reload, requests arriving before it starts are merged into it.
+     * @param feedback receives the summary once the reload was applied, may be null
+     */
+    public synchronized void requestReload(Consumer<String> feedback) {
+        if (null == this.executor) {
+            this.logger.warn("Ignoring reload of " + this.name + ", no server is running");
+            return;
+        }
+        if (null != feedback) {
+            this.listeners.add(feedback);
+        }
+        if (null != this.pending) {
+            this.pending.cancel(false);
+        }
+        this.pending = this.executor.schedule(this::reload, DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void reload() {
+        List<Consumer<String>> feedback;
+        MinecraftServer target;
+        synchronized (this) {
+            this.pending = null;
+            feedback = new ArrayList<>(this.listeners);
+            this.listeners.clear();
+            target = this.server;
+        }
+        if (null == target) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        T data;
+        try {
+            data = this.parser.get();
+        } catch (RuntimeException e) {
+            // Usually a file that is still being edited, the next change triggers another reload
+            String message = "Could not reload " + this.name + ": " + e.getMessage();
+            this.logger.error(message);
+            target.addScheduledTask(() -> feedback.forEach(listener -> listener.accept(message)));
+            return;
+        }
+        long parseMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        target.addScheduledTask(() -> {
+            String summary = this.applier.apply(data);
+            this.logger.info(summary + " (parsed in " + parseMillis + " ms)");
+            feedback.forEach(listener -> listener.accept(summary));
+        });
+    }
+
+    private void startWatching() {
+        try {
+            Files.createDirectories(this.dir);
+            this.watchService = this.dir.getFileSystem().newWatchService();
+            this.dir.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            this.logger.error("Could not watch " + this.dir + " for changes: " + e.getMessage());
+            return;
+        }
+        WatchService service = this.watchService;
+        Thread thread = new Thread(() -> this.watch(service), this.name + " watcher");
+        thread.setDaemon(true);
+        thread.start();
+        this.logger.info("Watching " + this.dir + " for changes to " + this.name);
+    }
+
+    private void watch(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    Object context = event.context();
+                    changed |= context instanceof Path && this.fileFilter.test(context.toString());
+                }
+                key.reset();
+                if (changed) {
+                    this.requestReload(null);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped together with the server
+        }
+    }
+}
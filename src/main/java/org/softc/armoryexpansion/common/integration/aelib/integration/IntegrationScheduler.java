@@ -0,0 +1,223 @@
+package org.softc.armoryexpansion.common.integration.aelib.integration;
+
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the {@link IIntegration#prepare(File)} stage of every integration on worker threads as soon as Armory Expansion
+ * is pre-initialized, instead of one after the other in each integration's preInit.
+ * An integration consuming some data waits for every integration producing it, all others run at the same time.
+ * Each integration's preInit then waits for its own stage with {@link #await} and does the registry work on the main thread,
+ * in the usual mod order.
+ */
+public final class IntegrationScheduler {
+    /**
+     * The materials JSON file each integration writes to the config directory.
+     */
+    public static final String MATERIALS = "materials";
+
+    private static final Map<IIntegration, Task> TASKS = new LinkedHashMap<>();
+    private static ExecutorService executor;
+    private static long started;
+
+    private IntegrationScheduler() {
+    }
+
+    /**
+     * Starts the prepare stage of the integrations, given in mod order.
+     * Integrations whose data depends on each other in a cycle are run in mod order, and logged.
+     */
+    public static synchronized void start(Collection<IIntegration> integrations, File configDir, Logger logger) {
+        if (null != executor) {
+            return;
+        }
+        List<IIntegration> order = getOrder(new ArrayList<>(integrations), logger);
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Math.max(1, Math.min(order.size(), Runtime.getRuntime().availableProcessors())), runnable -> {
+            Thread thread = new Thread(runnable, "Armory Expansion Integration " + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        started = System.nanoTime();
+
+        for (IIntegration integration : order) {
+            // Only integrations earlier in the order are waited for, which breaks any cycle
+            List<Task> dependencies = new ArrayList<>();
+            for (Map.Entry<IIntegration, Task> scheduled : TASKS.entrySet()) {
+                if (!Collections.disjoint(integration.getConsumedData(), scheduled.getKey().getProducedData())) {
+                    dependencies.add(scheduled.getValue());
+                }
+            }
+            Task task = new Task(integration, dependencies);
+            CompletableFuture<?>[] waits = new CompletableFuture<?>[dependencies.size()];
+            for (int i = 0; i < waits.length; i++) {
+                // A failed dependency fails its own mod, the consumer still runs with what is on disk
+                waits[i] = dependencies.get(i).future.handle((result, error) -> null);
+            }
+            task.future = CompletableFuture.allOf(waits).thenRunAsync(() -> task.run(configDir), executor);
+            TASKS.put(integration, task);
+        }
+    }
+
+    /**
+     * Waits for the prepare stage of the integration, or runs it on the calling thread if it was not scheduled.
+     * Errors are rethrown here so they are reported for the integration they belong to.
+     */
+    public static void await(IIntegration integration, File configDir) {
+        Task task;
+        synchronized (IntegrationScheduler.class) {
+            task = TASKS.get(integration);
+        }
+        if (null == task) {
+            integration.prepare(configDir);
+            return;
+        }
+        try {
+            task.future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Logs how long the prepare stage took overall against the time spent in all integrations,
+     * and its critical path, the chain of dependent integrations that determined how long it took.
+     */
+    public static synchronized void logReport(Logger logger) {
+        if (TASKS.isEmpty()) {
+            return;
+        }
+        long end = started;
+        long work = 0;
+        Task last = null;
+        Map<Task, Long> pathLengths = new HashMap<>();
+        for (Task task : TASKS.values()) {
+            if (!task.future.isDone()) {
+                logger.info("The prepare stage of " + task.getName() + " is still running");
+                return;
+            }
+            end = Math.max(end, task.end);
+            work += task.getDuration();
+            // Dependencies come first in the map, so their path lengths are known
+            long longest = 0;
+            for (Task dependency : task.dependencies) {
+                longest = Math.max(longest, pathLengths.get(dependency));
+            }
+            pathLengths.put(task, longest + task.getDuration());
+            if (null == last || pathLengths.get(task) > pathLengths.get(last)) {
+                last = task;
+            }
+        }
+
+        Deque<String> path = new ArrayDeque<>();
+        for (Task task = last; null != task; ) {
+            path.push(task.getName() + " " + AbstractIntegration.toMillis(task.getDuration()) + " ms");
+            Task next = null;
+            for (Task dependency : task.dependencies) {
+                if (null == next || pathLengths.get(dependency) > pathLengths.get(next)) {
+                    next = dependency;
+                }
+            }
+            task = next;
+        }
+        executor.shutdown();
+        logger.info("Prepared " + TASKS.size() + " integrations in " + AbstractIntegration.toMillis(end - started) + " ms, "
+                + AbstractIntegration.toMillis(work) + " ms of work");
+        logger.info("Critical path of " + AbstractIntegration.toMillis(pathLengths.get(last)) + " ms: " + String.join(" -> ", path));
+    }
+
+    /**
+     * Orders the integrations so producers come before their consumers, keeping the mod order otherwise.
+     */
+    private static List<IIntegration> getOrder(List<IIntegration> integrations, Logger logger) {
+        int size = integrations.size();
+        int[] pending = new int[size];
+        List<List<Integer>> consumers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            consumers.add(new ArrayList<>());
+        }
+        for (int consumer = 0; consumer < size; consumer++) {
+            for (int producer = 0; producer < size; producer++) {
+                if (producer != consumer && !Collections.disjoint(integrations.get(consumer).getConsumedData(),
+                        integrations.get(producer).getProducedData())) {
+                    consumers.get(producer).add(consumer);
+                    pending[consumer]++;
+                }
+            }
+        }
+
+        List<IIntegration> order = new ArrayList<>(size);
+        boolean[] ordered = new boolean[size];
+        PriorityQueue<Integer> ready = new PriorityQueue<>();
+        for (int i = 0; i < size; i++) {
+            if (0 == pending[i]) {
+                ready.add(i);
+            }
+        }
+        while (order.size() < size) {
+            if (ready.isEmpty()) {
+                for (int i = 0; i < size; i++) {
+                    if (!ordered[i]) {
+                        logger.warn(integrations.get(i).getClass().getSimpleName()
+                                + " is part of a data dependency cycle, it only waits for integrations loaded before it");
+                        ready.add(i);
+                        break;
+                    }
+                }
+            }
+            int next = ready.poll();
+            if (ordered[next]) {
+                continue;
+            }
+            ordered[next] = true;
+            order.add(integrations.get(next));
+            for (int consumer : consumers.get(next)) {
+                if (0 == --pending[consumer]) {
+                    ready.add(consumer);
+                }
+            }
+        }
+        return order;
+    }
+
+    private static class Task {
+        private final IIntegration integration;
+        private final List<Task> dependencies;
+        private CompletableFuture<Void> future;
+        private volatile long start;
+        private volatile long end;
+
+        Task(IIntegration integration, List<Task> dependencies) {
+            this.integration = integration;
+            this.dependencies = dependencies;
+        }
+
+        void run(File configDir) {
+            this.start = System.nanoTime();
+            try {
+                this.integration.prepare(configDir);
+            } finally {
+                this.end = System.nanoTime();
+            }
+        }
+
+        long getDuration() {
+            return this.end - this.start;
+        }
+
+        String getName() {
+            return this.integration.getClass().getSimpleName();
+        }
+    }
+}
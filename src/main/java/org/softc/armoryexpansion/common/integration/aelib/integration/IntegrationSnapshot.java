@@ -0,0 +1,452 @@
+package org.softc.armoryexpansion.common.integration.aelib.integration;
+
+import c4.conarm.lib.materials.CoreMaterialStats;
+import c4.conarm.lib.materials.PlatesMaterialStats;
+import c4.conarm.lib.materials.TrimMaterialStats;
+import net.minecraft.util.ResourceLocation;
+import org.softc.armoryexpansion.client.integration.aelib.plugins.tinkers_construct.material.MaterialRenderType;
+import org.softc.armoryexpansion.common.integration.aelib.config.MaterialConfigFlags;
+import org.softc.armoryexpansion.common.integration.aelib.config.MaterialConfigOptions;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.constructsarmory.material.ArmorMaterial;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.constructsarmory.material.ArmorToolRangedMaterial;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.general.material.BasicMaterial;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.general.material.IBasicMaterial;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.general.oredictionary.BasicOreDictionary;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.general.oredictionary.IOreDictionary;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.general.oredictionary.ItemHolder;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.general.traits.MaterialTraits;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.general.traits.TraitHolder;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.alloys.Alloy;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.alloys.AlloyComponent;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.alloys.IAlloy;
+import org.softc.armoryexpansion.common.util.AtomicFileWriter;
+import slimeknights.tconstruct.library.materials.*;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Binary copy of an integration's data after it has been loaded from JSON and synced with the config,
+ * so restarts with unchanged inputs can skip parsing entirely.
+ * A snapshot is only valid for the input hash it was written with.
+ */
+public class IntegrationSnapshot {
+    private static final int MAGIC = 0x41455342;
+    private static final int FORMAT_VERSION = 1;
+
+    private static final byte ARMOR_MATERIAL = 0;
+    private static final byte ARMOR_TOOL_RANGED_MATERIAL = 1;
+
+    private final List<IBasicMaterial> materials = new ArrayList<>();
+    private final List<MaterialTraits> materialTraits = new ArrayList<>();
+    private final List<IOreDictionary> oreDictionaryEntries = new ArrayList<>();
+    private final List<IAlloy> alloys = new ArrayList<>();
+    private final List<MaterialConfigOptions> configOptions = new ArrayList<>();
+
+    private IntegrationSnapshot() {
+    }
+
+    public List<IBasicMaterial> getMaterials() {
+        return this.materials;
+    }
+
+    public List<MaterialTraits> getMaterialTraits() {
+        return this.materialTraits;
+    }
+
+    public List<IOreDictionary> getOreDictionaryEntries() {
+        return this.oreDictionaryEntries;
+    }
+
+    public List<IAlloy> getAlloys() {
+        return this.alloys;
+    }
+
+    public List<MaterialConfigOptions> getConfigOptions() {
+        return this.configOptions;
+    }
+
+    /**
+     * @return whether every value can be stored, integrations with custom implementations of the data
+     * interfaces are never snapshotted
+     */
+    static boolean isSupported(Collection<IBasicMaterial> materials, Collection<IOreDictionary> oreDictionaryEntries, Collection<IAlloy> alloys) {
+        return materials.stream().allMatch(m -> m.getClass() == ArmorMaterial.class || m.getClass() == ArmorToolRangedMaterial.class)
+                && oreDictionaryEntries.stream().allMatch(o -> o.getClass() == BasicOreDictionary.class)
+                && alloys.stream().allMatch(a -> a.getClass() == Alloy.class);
+    }
+
+    /**
+     * @return the snapshot stored in the file, or null if it is missing, corrupt or was written for other inputs
+     */
+    static IntegrationSnapshot read(File file, byte[] inputHash) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (MAGIC != in.readInt() || FORMAT_VERSION != in.readInt()) {
+                return null;
+            }
+            byte[] hash = new byte[in.readUnsignedShort()];
+            in.readFully(hash);
+            if (!Arrays.equals(hash, inputHash)) {
+                return null;
+            }
+
+            IntegrationSnapshot snapshot = new IntegrationSnapshot();
+            for (int i = in.readInt(); 0 < i; i--) {
+                snapshot.materials.add(readMaterial(in));
+            }
+            for (int i = in.readInt(); 0 < i; i--) {
+                snapshot.materialTraits.add(readTraits(in));
+            }
+            for (int i = in.readInt(); 0 < i; i--) {
+                snapshot.oreDictionaryEntries.add(readOreDictionary(in));
+            }
+            for (int i = in.readInt(); 0 < i; i--) {
+                snapshot.alloys.add(readAlloy(in));
+            }
+            for (int i = in.readInt(); 0 < i; i--) {
+                snapshot.configOptions.add(MaterialConfigFlags.unpack(readString(in), in.readInt()));
+            }
+            // A truncated file fails here instead of silently dropping the last records
+            return MAGIC == in.readInt() ? snapshot : null;
+        }
+    }
+
+    static void write(File file, byte[] inputHash, Collection<IBasicMaterial> materials, Collection<MaterialTraits> materialTraits,
+                      Collection<IOreDictionary> oreDictionaryEntries, Collection<IAlloy> alloys, Collection<MaterialConfigOptions> configOptions) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeShort(inputHash.length);
+            out.write(inputHash);
+
+            out.writeInt(materials.size());
+            for (IBasicMaterial material : materials) {
+                writeMaterial(out, material);
+            }
+            out.writeInt(materialTraits.size());
+            for (MaterialTraits traits : materialTraits) {
+                writeTraits(out, traits);
+            }
+            out.writeInt(oreDictionaryEntries.size());
+            for (IOreDictionary oreDictionary : oreDictionaryEntries) {
+                writeOreDictionary(out, (BasicOreDictionary) oreDictionary);
+            }
+            out.writeInt(alloys.size());
+            for (IAlloy alloy : alloys) {
+                writeAlloy(out, alloy);
+            }
+            out.writeInt(configOptions.size());
+            for (MaterialConfigOptions options : configOptions) {
+                writeString(out, options.getName());
+                out.writeInt(MaterialConfigFlags.pack(options));
+            }
+            out.writeInt(MAGIC);
+        }
+        AtomicFileWriter.writeIfChanged(file, bytes.toByteArray());
+    }
+
+    // Materials
+    private static void writeMaterial(DataOutputStream out, IBasicMaterial material) throws IOException {
+        ArmorMaterial armorMaterial = (ArmorMaterial) material;
+        boolean ranged = armorMaterial instanceof ArmorToolRangedMaterial;
+        out.writeByte(ranged ? ARMOR_TOOL_RANGED_MATERIAL : ARMOR_MATERIAL);
+        writeString(out, armorMaterial.getIdentifier());
+        out.writeInt(armorMaterial.getColor());
+        writeString(out, null == armorMaterial.getType() ? null : armorMaterial.getType().name());
+        ResourceLocation texture = armorMaterial.getTexture();
+        out.writeBoolean(null != texture);
+        if (null != texture) {
+            out.writeUTF(texture.getNamespace());
+            out.writeUTF(texture.getPath());
+        }
+        out.writeBoolean(armorMaterial.isCastable());
+        out.writeBoolean(armorMaterial.isCraftable());
+
+        writeCore(out, armorMaterial.getCoreMaterialStats());
+        writePlates(out, armorMaterial.getPlatesMaterialStats());
+        writeTrim(out, armorMaterial.getTrimMaterialStats());
+        if (ranged) {
+            ArmorToolRangedMaterial rangedMaterial = (ArmorToolRangedMaterial) armorMaterial;
+            writeHead(out, rangedMaterial.getHeadMaterialStats());
+            writeHandle(out, rangedMaterial.getHandleMaterialStats());
+            writeExtra(out, rangedMaterial.getExtraMaterialStats());
+            writeBow(out, rangedMaterial.getBowMaterialStats());
+            writeBowString(out, rangedMaterial.getBowStringMaterialStats());
+            writeShaft(out, rangedMaterial.getArrowShaftMaterialStats());
+            writeFletching(out, rangedMaterial.getFletchingMaterialStats());
+            out.writeBoolean(null != rangedMaterial.getProjectileMaterialStats());
+        }
+    }
+
+    private static IBasicMaterial readMaterial(DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        String identifier = readString(in);
+        int color = in.readInt();
+        String type = readString(in);
+        MaterialRenderType renderType = null == type ? null : MaterialRenderType.valueOf(type);
+        ResourceLocation texture = in.readBoolean() ? new ResourceLocation(in.readUTF(), in.readUTF()) : null;
+        boolean castable = in.readBoolean();
+        boolean craftable = in.readBoolean();
+
+        CoreMaterialStats core = readCore(in);
+        PlatesMaterialStats plates = readPlates(in);
+        TrimMaterialStats trim = readTrim(in);
+        BasicMaterial material;
+        if (ARMOR_TOOL_RANGED_MATERIAL == kind) {
+            material = new ArmorToolRangedMaterial(identifier, color, renderType, core, plates, trim,
+                    readHead(in), readHandle(in), readExtra(in),
+                    readBow(in), readBowString(in), readShaft(in), readFletching(in),
+                    in.readBoolean() ? new ProjectileMaterialStats() : null);
+        } else {
+            material = new ArmorMaterial(identifier, color, renderType, core, plates, trim);
+        }
+        material.setTexture(texture);
+        material.setCastable(castable);
+        material.setCraftable(craftable);
+        return material;
+    }
+
+    // Stats, each prefixed by whether it is present
+    private static void writeCore(DataOutputStream out, CoreMaterialStats stats) throws IOException {
+        out.writeBoolean(null != stats);
+        if (null != stats) {
+            out.writeFloat(stats.durability);
+            out.writeFloat(stats.defense);
+        }
+    }
+
+    private static CoreMaterialStats readCore(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new CoreMaterialStats(in.readFloat(), in.readFloat()) : null;
+    }
+
+    private static void writePlates(DataOutputStream out, PlatesMaterialStats stats) throws IOException {
+        out.writeBoolean(null != stats);
+        if (null != stats) {
+            out.writeFloat(stats.modifier);
+            out.writeFloat(stats.durability);
+            out.writeFloat(stats.toughness);
+        }
+    }
+
+    private static PlatesMaterialStats readPlates(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new PlatesMaterialStats(in.readFloat(), in.readFloat(), in.readFloat()) : null;
+    }
+
+    private static void writeTrim(DataOutputStream out, TrimMaterialStats stats) throws IOException {
+        out.writeBoolean(null != stats);
+        if (null != stats) {
+            out.writeFloat(stats.extraDurability);
+        }
+    }
+
+    private static TrimMaterialStats readTrim(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new TrimMaterialStats(in.readFloat()) : null;
+    }
+
+    private static void writeHead(DataOutputStream out, HeadMaterialStats stats) throws IOException {
+        out.writeBoolean(null != stats);
+        if (null != stats) {
+            out.writeInt(stats.durability);
+            out.writeFloat(stats.miningspeed);
+            out.writeFloat(stats.attack);
+            out.writeInt(stats.harvestLevel);
+        }
+    }
+
+    private static HeadMaterialStats readHead(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new HeadMaterialStats(in.readInt(), in.readFloat(), in.readFloat(), in.readInt()) : null;
+    }
+
+    private static void writeHandle(DataOutputStream out, HandleMaterialStats stats) throws IOException {
+        out.writeBoolean(null != stats);
+        if (null != stats) {
+            out.writeFloat(stats.modifier);
+            out.writeInt(stats.durability);
+        }
+    }
+
+    private static HandleMaterialStats readHandle(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new HandleMaterialStats(in.readFloat(), in.readInt()) : null;
+    }
+
+    private static void writeExtra(DataOutputStream out, ExtraMaterialStats stats) throws IOException {
+        out.writeBoolean(null != stats);
+        if (null != stats) {
+            out.writeInt(stats.extraDurability);
+        }
+    }
+
+    private static ExtraMaterialStats readExtra(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new ExtraMaterialStats(in.readInt()) : null;
+    }
+
+    private static void writeBow(DataOutputStream out, BowMaterialStats stats) throws IOException {
+        out.writeBoolean(null != stats);
+        if (null != stats) {
+            out.writeFloat(stats.drawspeed);
+            out.writeFloat(stats.range);
+            out.writeFloat(stats.bonusDamage);
+        }
+    }
+
+    private static BowMaterialStats readBow(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new BowMaterialStats(in.readFloat(), in.readFloat(), in.readFloat()) : null;
+    }
+
+    private static void writeBowString(DataOutputStream out, BowStringMaterialStats stats) throws IOException {
+        out.writeBoolean(null != stats);
+        if (null != stats) {
+            out.writeFloat(stats.modifier);
+        }
+    }
+
+    private static BowStringMaterialStats readBowString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new BowStringMaterialStats(in.readFloat()) : null;
+    }
+
+    private static void writeShaft(DataOutputStream out, ArrowShaftMaterialStats stats) throws IOException {
+        out.writeBoolean(null != stats);
+        if (null != stats) {
+            out.writeFloat(stats.modifier);
+            out.writeInt(stats.bonusAmmo);
+        }
+    }
+
+    private static ArrowShaftMaterialStats readShaft(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new ArrowShaftMaterialStats(in.readFloat(), in.readInt()) : null;
+    }
+
+    private static void writeFletching(DataOutputStream out, FletchingMaterialStats stats) throws IOException {
+        out.writeBoolean(null != stats);
+        if (null != stats) {
+            out.writeFloat(stats.accuracy);
+            out.writeFloat(stats.modifier);
+        }
+    }
+
+    private static FletchingMaterialStats readFletching(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new FletchingMaterialStats(in.readFloat(), in.readFloat()) : null;
+    }
+
+    // Traits
+    private static void writeTraits(DataOutputStream out, MaterialTraits traits) throws IOException {
+        writeString(out, traits.getIdentifier());
+        List<TraitHolder> holders = traits.getTraits();
+        out.writeInt(null == holders ? -1 : holders.size());
+        if (null != holders) {
+            for (TraitHolder holder : holders) {
+                writeString(out, holder.getTraitPart());
+                writeStrings(out, holder.getTraitNames());
+            }
+        }
+    }
+
+    private static MaterialTraits readTraits(DataInputStream in) throws IOException {
+        MaterialTraits traits = new MaterialTraits();
+        traits.setIdentifier(readString(in));
+        int size = in.readInt();
+        if (0 <= size) {
+            List<TraitHolder> holders = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                String part = readString(in);
+                holders.add(new TraitHolder(readStrings(in), part));
+            }
+            traits.setTraits(holders);
+        }
+        return traits;
+    }
+
+    // Ore Dictionary Entries
+    private static void writeOreDictionary(DataOutputStream out, BasicOreDictionary oreDictionary) throws IOException {
+        writeString(out, oreDictionary.getIdentifier());
+        ItemHolder[] entries = oreDictionary.getEntries();
+        out.writeInt(null == entries ? -1 : entries.length);
+        if (null != entries) {
+            for (ItemHolder entry : entries) {
+                writeString(out, entry.getItemName());
+                out.writeInt(entry.getMeta());
+            }
+        }
+    }
+
+    private static IOreDictionary readOreDictionary(DataInputStream in) throws IOException {
+        String identifier = readString(in);
+        int size = in.readInt();
+        ItemHolder[] entries = null;
+        if (0 <= size) {
+            entries = new ItemHolder[size];
+            for (int i = 0; i < size; i++) {
+                entries[i] = new ItemHolder(readString(in), in.readInt());
+            }
+        }
+        return new BasicOreDictionary(identifier, entries);
+    }
+
+    // Alloys
+    private static void writeAlloy(DataOutputStream out, IAlloy alloy) throws IOException {
+        writeAlloyComponent(out, alloy.getOutput());
+        AlloyComponent[] inputs = alloy.getInputs();
+        out.writeInt(inputs.length);
+        for (AlloyComponent input : inputs) {
+            writeAlloyComponent(out, input);
+        }
+    }
+
+    private static IAlloy readAlloy(DataInputStream in) throws IOException {
+        AlloyComponent output = readAlloyComponent(in);
+        AlloyComponent[] inputs = new AlloyComponent[in.readInt()];
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = readAlloyComponent(in);
+        }
+        return new Alloy(output, inputs);
+    }
+
+    private static void writeAlloyComponent(DataOutputStream out, AlloyComponent component) throws IOException {
+        writeString(out, component.getFluid());
+        out.writeInt(component.getAmount());
+    }
+
+    private static AlloyComponent readAlloyComponent(DataInputStream in) throws IOException {
+        return new AlloyComponent(readString(in), in.readInt());
+    }
+
+    // Helpers
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(null != value);
+        if (null != value) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(null == values ? -1 : values.size());
+        if (null != values) {
+            for (String value : values) {
+                writeString(out, value);
+            }
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        if (0 > size) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+}
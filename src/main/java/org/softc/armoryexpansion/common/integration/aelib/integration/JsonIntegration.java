@@ -1,22 +1,19 @@
 package org.softc.armoryexpansion.common.integration.aelib.integration;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import org.apache.commons.io.input.BoundedInputStream;
 import org.softc.armoryexpansion.ArmoryExpansion;
 import org.softc.armoryexpansion.common.integration.aelib.config.MaterialConfigOptions;
 import org.softc.armoryexpansion.common.integration.aelib.plugins.constructsarmory.material.ArmorToolRangedMaterial;
 import org.softc.armoryexpansion.common.integration.aelib.plugins.general.oredictionary.BasicOreDictionary;
-import org.softc.armoryexpansion.common.integration.aelib.plugins.general.oredictionary.IOreDictionary;
 import org.softc.armoryexpansion.common.integration.aelib.plugins.general.traits.MaterialTraits;
 import org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.alloys.Alloy;
+import org.softc.armoryexpansion.common.util.ConfigFileSuffixEnum;
 
-import java.io.BufferedReader;
-import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.util.function.Consumer;
 
 public class JsonIntegration extends AbstractIntegration {
+    private static final String STREAM_ORIGIN = "input stream";
+
     private String json;
 
     protected JsonIntegration(String modId, String root, String json) {
@@ -25,110 +22,60 @@ public class JsonIntegration extends AbstractIntegration {
     }
 
     protected void loadMaterialsFromJson(InputStream path){
-        Gson gson = new GsonBuilder().setPrettyPrinting().setLenient().create();
-
-        ArmorToolRangedMaterial[] jsonMaterials = gson.fromJson(
-                new BufferedReader(
-                        new InputStreamReader(
-                                new BoundedInputStream(path, ArmoryExpansion.getBoundedInputStreamMaxSize()))), ArmorToolRangedMaterial[].class);
-        this.loadMaterials(jsonMaterials);
+        this.loadJsonStream(path, STREAM_ORIGIN, ArmorToolRangedMaterial.class, this::loadMaterial);
     }
 
     @Override
     protected void loadMaterialsFromSource() {
-        InputStream stream =
-                this.getClass()
-                        .getClassLoader()
-                        .getResourceAsStream("assets/" + this.root + "/data/" + this.json + "/" + this.json + "-materials.json");
-        if (null != stream) {
-            this.loadMaterialsFromJson(stream);
-        }
+        this.loadFromSource(ConfigFileSuffixEnum.MATERIALS_SUFFIX, ArmorToolRangedMaterial.class, this::loadMaterial);
     }
 
     protected void loadOreDictionaryEntriesFromJson(InputStream path) {
-        Gson gson = new GsonBuilder().setPrettyPrinting().setLenient().create();
-
-        IOreDictionary[] jsonMaterials = gson.fromJson(
-                new BufferedReader(
-                        new InputStreamReader(
-                                new BoundedInputStream(path, ArmoryExpansion.getBoundedInputStreamMaxSize()))), BasicOreDictionary[].class);
-        this.loadOreDictionaryEntries(jsonMaterials);
+        this.loadJsonStream(path, STREAM_ORIGIN, BasicOreDictionary.class, this::loadOreDictionaryEntry);
     }
 
     @Override
     protected void loadOreDictionaryEntriesFromSource() {
-        InputStream stream = this.getClass()
-                .getClassLoader()
-                .getResourceAsStream("assets/" + this.root + "/data/" + this.json + "/" + this.json + "-oreDictEntries.json");
-        if (null != stream) {
-            this.loadOreDictionaryEntriesFromJson(stream);
-        }
+        this.loadFromSource(ConfigFileSuffixEnum.ORE_DICT_ENTRIES_SUFFIX, BasicOreDictionary.class, this::loadOreDictionaryEntry);
     }
 
     protected void loadAlloysFromJson(InputStream path){
-        Gson gson = new GsonBuilder().setPrettyPrinting().setLenient().create();
-
-        Alloy[] jsonAlloys = new Alloy[0];
-        try {
-            BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(
-                            new BoundedInputStream(path, ArmoryExpansion.getBoundedInputStreamMaxSize())));
-            jsonAlloys = gson.fromJson(reader, Alloy[].class);
-            reader.close();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-        this.loadAlloys(jsonAlloys);
+        this.loadJsonStream(path, STREAM_ORIGIN, Alloy.class, this::loadAlloy);
     }
 
     @Override
     protected void loadAlloysFromSource() {
-        InputStream stream = this.getClass()
-                .getClassLoader()
-                .getResourceAsStream("assets/" + this.root + "/data/" + this.json + "/" + this.json + "-alloys.json");
-        if (null != stream) {
-            this.loadAlloysFromJson(stream);
-        }
+        this.loadFromSource(ConfigFileSuffixEnum.ALLOYS_SUFFIX, Alloy.class, this::loadAlloy);
     }
 
     protected void loadConfigFromJson(InputStream path){
-        Gson gson = new GsonBuilder().setPrettyPrinting().setLenient().create();
-
-        MaterialConfigOptions[] jsonConfig = gson.fromJson(
-                new BufferedReader(
-                        new InputStreamReader(
-                                new BoundedInputStream(path, ArmoryExpansion.getBoundedInputStreamMaxSize()))), MaterialConfigOptions[].class);
-        this.loadConfig(jsonConfig);
+        this.loadJsonStream(path, STREAM_ORIGIN, MaterialConfigOptions.class, this::loadConfigOptions);
     }
 
     @Override
     protected void loadConfigFromSource() {
-        InputStream stream = this.getClass()
-                .getClassLoader()
-                .getResourceAsStream("assets/" + this.root + "/data/" + this.json + "/" + this.json + "-config.json");
-        if (null != stream) {
-            this.loadConfigFromJson(stream);
-        }
+        this.loadFromSource(ConfigFileSuffixEnum.CONFIG_SUFFIX, MaterialConfigOptions.class, this::loadConfigOptions);
     }
 
     protected void loadTraitsFromJson(InputStream path){
-        Gson gson = new GsonBuilder().setPrettyPrinting().setLenient().create();
-
-        MaterialTraits[] jsonMaterials = gson.fromJson(
-                new BufferedReader(
-                        new InputStreamReader(
-                                new BoundedInputStream(path, ArmoryExpansion.getBoundedInputStreamMaxSize()))), MaterialTraits[].class);
-        this.loadTraits(jsonMaterials);
+        this.loadJsonStream(path, STREAM_ORIGIN, MaterialTraits.class, this::loadTrait);
     }
 
     @Override
     protected void loadTraitsFromSource() {
-        InputStream stream = this.getClass()
-                .getClassLoader()
-                .getResourceAsStream("assets/" + this.root + "/data/" + this.json + "/" + this.json + "-traits.json");
-        if (null != stream) {
-            this.loadTraitsFromJson(stream);
-        }
+        this.loadFromSource(ConfigFileSuffixEnum.TRAITS_SUFFIX, MaterialTraits.class, this::loadTrait);
+    }
+
+    @Override
+    protected String getSourcePath(ConfigFileSuffixEnum suffix) {
+        return "assets/" + this.root + "/data/" + this.json + "/" + this.json + suffix.getSuffix() + ".json";
+    }
+
+    private <T> void loadFromSource(ConfigFileSuffixEnum suffix, Class<T> type, Consumer<? super T> consumer) {
+        this.loadJsonResource(this.getSourcePath(suffix), ArmoryExpansion.getBoundedInputStreamMaxSize(), type, consumer);
+    }
+
+    private <T> void loadJsonStream(InputStream stream, String origin, Class<T> type, Consumer<? super T> consumer) {
+        this.loadJson(stream, origin, ArmoryExpansion.getBoundedInputStreamMaxSize(), type, consumer);
     }
 }
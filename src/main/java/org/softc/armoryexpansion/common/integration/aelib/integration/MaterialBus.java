@@ -0,0 +1,66 @@
+package org.softc.armoryexpansion.common.integration.aelib.integration;
+
+import org.softc.armoryexpansion.common.integration.aelib.plugins.general.material.IBasicMaterial;
+
+import java.util.*;
+
+/**
+ * The materials each integration loaded, published under its id once its data is prepared, so other integrations
+ * can read them directly instead of parsing the JSON file the integration wrote back from disk.
+ * Published maps are read-only copies, the materials in them still belong to their integration and must not be changed.
+ */
+public final class MaterialBus {
+    private static final Map<String, Map<String, IBasicMaterial>> PUBLISHED = new TreeMap<>();
+    private static final Set<String> EXPECTED = new TreeSet<>();
+
+    private MaterialBus() {
+    }
+
+    /**
+     * Announces that the source is going to publish its materials, so consumers can tell when it failed to.
+     */
+    public static synchronized void expect(String source) {
+        EXPECTED.add(source);
+    }
+
+    /**
+     * Publishes the materials of the source, replacing whatever it published before.
+     */
+    public static synchronized void publish(String source, Map<String, ? extends IBasicMaterial> materials) {
+        PUBLISHED.put(source, Collections.unmodifiableMap(new LinkedHashMap<>(materials)));
+    }
+
+    public static synchronized boolean isPublished(String source) {
+        return PUBLISHED.containsKey(source);
+    }
+
+    /**
+     * @return the sources that announced their materials but did not publish them, in alphabetical order
+     */
+    public static synchronized Set<String> getUnpublishedSources() {
+        Set<String> sources = new TreeSet<>(EXPECTED);
+        sources.removeAll(PUBLISHED.keySet());
+        return Collections.unmodifiableSet(sources);
+    }
+
+    /**
+     * @return the sources that published their materials, in alphabetical order
+     */
+    public static synchronized Set<String> getSources() {
+        return Collections.unmodifiableSet(new TreeSet<>(PUBLISHED.keySet()));
+    }
+
+    public static synchronized Map<String, IBasicMaterial> getMaterials(String source) {
+        return PUBLISHED.getOrDefault(source, Collections.emptyMap());
+    }
+
+    /**
+     * @return the materials of all sources, a material published by several sources is taken from the first one
+     * in alphabetical order, like the JSON files used to be read
+     */
+    public static synchronized Map<String, IBasicMaterial> getAllMaterials() {
+        Map<String, IBasicMaterial> materials = new LinkedHashMap<>();
+        PUBLISHED.values().forEach(published -> published.forEach(materials::putIfAbsent));
+        return Collections.unmodifiableMap(materials);
+    }
+}
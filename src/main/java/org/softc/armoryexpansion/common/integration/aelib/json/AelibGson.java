@@ -0,0 +1,54 @@
+package org.softc.armoryexpansion.common.integration.aelib.json;
+
+import c4.conarm.lib.materials.CoreMaterialStats;
+import c4.conarm.lib.materials.PlatesMaterialStats;
+import c4.conarm.lib.materials.TrimMaterialStats;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.softc.armoryexpansion.common.integration.aelib.config.MaterialConfigOptions;
+import org.softc.armoryexpansion.common.integration.aelib.config.MaterialConfigOptionsTypeAdapter;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.constructsarmory.material.ArmorMaterialTypeAdapterFactory;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.general.oredictionary.BasicOreDictionary;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.general.oredictionary.BasicOreDictionaryTypeAdapter;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.general.traits.MaterialTraits;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.general.traits.MaterialTraitsTypeAdapter;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.alloys.Alloy;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.alloys.AlloyTypeAdapter;
+import org.softc.armoryexpansion.common.integration.modsupport.ConArmFormulas;
+import org.softc.armoryexpansion.common.integration.modsupport.ConArmFormulasTypeAdapter;
+import slimeknights.tconstruct.library.materials.*;
+
+/**
+ * Shared serializer registry for every aelib data type.
+ * Gson instances are immutable and thread-safe, so a single one is used by all integrations.
+ */
+public final class AelibGson {
+    private static final Gson GSON = new GsonBuilder()
+            .setPrettyPrinting()
+            .setLenient()
+            .registerTypeAdapter(HeadMaterialStats.class, MaterialStatsTypeAdapters.HEAD)
+            .registerTypeAdapter(HandleMaterialStats.class, MaterialStatsTypeAdapters.HANDLE)
+            .registerTypeAdapter(ExtraMaterialStats.class, MaterialStatsTypeAdapters.EXTRA)
+            .registerTypeAdapter(BowMaterialStats.class, MaterialStatsTypeAdapters.BOW)
+            .registerTypeAdapter(BowStringMaterialStats.class, MaterialStatsTypeAdapters.BOWSTRING)
+            .registerTypeAdapter(ArrowShaftMaterialStats.class, MaterialStatsTypeAdapters.SHAFT)
+            .registerTypeAdapter(FletchingMaterialStats.class, MaterialStatsTypeAdapters.FLETCHING)
+            .registerTypeAdapter(ProjectileMaterialStats.class, MaterialStatsTypeAdapters.PROJECTILE)
+            .registerTypeAdapter(CoreMaterialStats.class, MaterialStatsTypeAdapters.CORE)
+            .registerTypeAdapter(PlatesMaterialStats.class, MaterialStatsTypeAdapters.PLATES)
+            .registerTypeAdapter(TrimMaterialStats.class, MaterialStatsTypeAdapters.TRIM)
+            .registerTypeAdapterFactory(new ArmorMaterialTypeAdapterFactory())
+            .registerTypeAdapter(MaterialTraits.class, new MaterialTraitsTypeAdapter())
+            .registerTypeAdapter(BasicOreDictionary.class, new BasicOreDictionaryTypeAdapter())
+            .registerTypeAdapter(Alloy.class, new AlloyTypeAdapter())
+            .registerTypeAdapter(MaterialConfigOptions.class, new MaterialConfigOptionsTypeAdapter())
+            .registerTypeAdapter(ConArmFormulas.class, new ConArmFormulasTypeAdapter())
+            .create();
+
+    private AelibGson() {
+    }
+
+    public static Gson getGson() {
+        return GSON;
+    }
+}
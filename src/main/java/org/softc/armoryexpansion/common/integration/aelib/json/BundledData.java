@@ -0,0 +1,138 @@
+package org.softc.armoryexpansion.common.integration.aelib.json;
+
+import org.softc.armoryexpansion.ArmoryExpansion;
+
+import java.io.*;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Serves the bundled data files from the indexed blob the {@code compileBundledData} Gradle task packs into the jar.
+ * The blob is read once, together with a single listing of the data files on the classpath, so files that are
+ * in neither are known to be missing without asking the class loader.
+ * A JSON file at the original path, such as one from a data pack, takes precedence over the packed copy.
+ * Without the blob, as in development environments, the listed JSON files are read directly.
+ */
+public final class BundledData {
+    public static final String DATA_ROOT = "assets/" + ArmoryExpansion.MODID + "/data/";
+    private static final String BLOB_PATH = "assets/" + ArmoryExpansion.MODID + "/data.bin";
+    private static final int MAGIC = 0x41454442;
+    private static final int FORMAT_VERSION = 1;
+
+    private static BundledData instance;
+
+    private final byte[] data;
+    private final Map<String, int[]> index;
+    // Data files on the classpath, which take precedence over the packed copies, or null if they could not be listed
+    private final Set<String> classpathFiles;
+
+    private BundledData(byte[] data, Map<String, int[]> index, Set<String> classpathFiles) {
+        this.data = data;
+        this.index = index;
+        this.classpathFiles = classpathFiles;
+    }
+
+    /**
+     * @return the content of the resource, or null if it does not exist
+     */
+    public static InputStream open(ClassLoader loader, String path) {
+        if (!path.startsWith(DATA_ROOT)) {
+            return loader.getResourceAsStream(path);
+        }
+        BundledData bundled = get(loader);
+        if (null == bundled.classpathFiles || bundled.classpathFiles.contains(path)) {
+            InputStream stream = loader.getResourceAsStream(path);
+            if (null != stream) {
+                return stream;
+            }
+        }
+        int[] entry = bundled.index.get(path);
+        return null == entry ? null : new ByteArrayInputStream(bundled.data, entry[0], entry[1]);
+    }
+
+    /**
+     * Reads the blob ahead of the first lookup.
+     */
+    public static void preload(ClassLoader loader) {
+        get(loader);
+    }
+
+    private static synchronized BundledData get(ClassLoader loader) {
+        if (null == instance) {
+            Set<String> classpathFiles = listClasspathFiles(loader);
+            BundledData blob = read(loader, classpathFiles);
+            instance = null != blob ? blob : new BundledData(new byte[0], Collections.emptyMap(), classpathFiles);
+        }
+        return instance;
+    }
+
+    private static BundledData read(ClassLoader loader, Set<String> classpathFiles) {
+        InputStream stream = loader.getResourceAsStream(BLOB_PATH);
+        if (null == stream) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(stream)) {
+            if (MAGIC != in.readInt() || FORMAT_VERSION != in.readInt()) {
+                return null;
+            }
+            int count = in.readInt();
+            Map<String, int[]> index = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                String path = in.readUTF();
+                index.put(path, new int[]{in.readInt(), in.readInt()});
+            }
+            byte[] data = new byte[in.readInt()];
+            in.readFully(data);
+            return new BundledData(data, index, classpathFiles);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Lists the data files below every classpath root that has the data directory, in one pass,
+     * so opening a file never has to ask the class loader for a resource that does not exist.
+     * @return the paths of the files, or null if a root cannot be listed and every file has to be looked up
+     */
+    private static Set<String> listClasspathFiles(ClassLoader loader) {
+        Set<String> files = new HashSet<>();
+        try {
+            Enumeration<URL> roots = loader.getResources(DATA_ROOT);
+            while (roots.hasMoreElements()) {
+                URL root = roots.nextElement();
+                if ("file".equals(root.getProtocol())) {
+                    Path dir = Paths.get(root.toURI());
+                    try (Stream<Path> paths = Files.walk(dir)) {
+                        paths.filter(Files::isRegularFile)
+                                .forEach(path -> files.add(DATA_ROOT + dir.relativize(path).toString().replace(File.separatorChar, '/')));
+                    }
+                } else if ("jar".equals(root.getProtocol())) {
+                    // The jar file is shared with the class loader, so it is not closed here
+                    JarFile jar = ((JarURLConnection) root.openConnection()).getJarFile();
+                    Enumeration<JarEntry> entries = jar.entries();
+                    while (entries.hasMoreElements()) {
+                        JarEntry entry = entries.nextElement();
+                        if (!entry.isDirectory() && entry.getName().startsWith(DATA_ROOT)) {
+                            files.add(entry.getName());
+                        }
+                    }
+                } else {
+                    return null;
+                }
+            }
+        } catch (IOException | URISyntaxException | RuntimeException e) {
+            e.printStackTrace();
+            return null;
+        }
+        return files;
+    }
+}
@@ -0,0 +1,87 @@
+package org.softc.armoryexpansion.common.integration.aelib.json;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Primitive read/write helpers shared by the hand-written aelib type adapters.
+ * Values are written exactly like Gson's reflective adapters would write them,
+ * so the produced JSON does not change.
+ */
+public final class JsonAdapterHelper {
+    private JsonAdapterHelper() {
+    }
+
+    public static void writeFloat(JsonWriter out, String name, float value) throws IOException {
+        // Boxing keeps Float.toString formatting, writing the primitive would widen it to a double
+        out.name(name).value(Float.valueOf(value));
+    }
+
+    public static void writeInt(JsonWriter out, String name, int value) throws IOException {
+        out.name(name).value(Integer.valueOf(value));
+    }
+
+    public static void writeBoolean(JsonWriter out, String name, boolean value) throws IOException {
+        out.name(name).value(value);
+    }
+
+    public static void writeString(JsonWriter out, String name, String value) throws IOException {
+        if (null != value) {
+            out.name(name).value(value);
+        }
+    }
+
+    public static boolean isNull(JsonReader in) throws IOException {
+        if (JsonToken.NULL == in.peek()) {
+            in.nextNull();
+            return true;
+        }
+        return false;
+    }
+
+    public static float nextFloat(JsonReader in, float defaultValue) throws IOException {
+        if (isNull(in)) {
+            return defaultValue;
+        }
+        try {
+            return (float) in.nextDouble();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    public static int nextInt(JsonReader in, int defaultValue) throws IOException {
+        if (isNull(in)) {
+            return defaultValue;
+        }
+        try {
+            return in.nextInt();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    public static boolean nextBoolean(JsonReader in, boolean defaultValue) throws IOException {
+        if (isNull(in)) {
+            return defaultValue;
+        }
+        if (JsonToken.STRING == in.peek()) {
+            return Boolean.parseBoolean(in.nextString());
+        }
+        return in.nextBoolean();
+    }
+
+    public static String nextString(JsonReader in) throws IOException {
+        if (isNull(in)) {
+            return null;
+        }
+        if (JsonToken.BOOLEAN == in.peek()) {
+            return Boolean.toString(in.nextBoolean());
+        }
+        return in.nextString();
+    }
+}
@@ -0,0 +1,62 @@
+package org.softc.armoryexpansion.common.integration.aelib.json;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.Consumer;
+
+/**
+ * Reads a JSON array of aelib records one element at a time and hands each record to a consumer,
+ * so memory use does not depend on the size of the file.
+ */
+public final class JsonStreamLoader {
+    private JsonStreamLoader() {
+    }
+
+    /**
+     * @return the number of records passed to the consumer
+     */
+    public static <T> int load(Reader reader, Class<T> type, Consumer<? super T> consumer) throws IOException {
+        TypeAdapter<T> adapter = AelibGson.getGson().getAdapter(type);
+        JsonReader in = new JsonReader(reader);
+        in.setLenient(true);
+
+        JsonToken token;
+        try {
+            token = in.peek();
+        } catch (EOFException e) {
+            // Empty documents are treated like an empty array, as Gson did
+            return 0;
+        }
+
+        int count = 0;
+        switch (token) {
+            case BEGIN_ARRAY:
+                in.beginArray();
+                while (in.hasNext()) {
+                    count += accept(adapter.read(in), consumer);
+                }
+                in.endArray();
+                break;
+            case NULL:
+                in.nextNull();
+                break;
+            default:
+                count += accept(adapter.read(in), consumer);
+                break;
+        }
+        return count;
+    }
+
+    private static <T> int accept(T record, Consumer<? super T> consumer) {
+        if (null == record) {
+            return 0;
+        }
+        consumer.accept(record);
+        return 1;
+    }
+}
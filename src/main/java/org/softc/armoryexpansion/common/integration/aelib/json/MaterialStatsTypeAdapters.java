@@ -0,0 +1,347 @@
+package org.softc.armoryexpansion.common.integration.aelib.json;
+
+import c4.conarm.lib.materials.CoreMaterialStats;
+import c4.conarm.lib.materials.PlatesMaterialStats;
+import c4.conarm.lib.materials.TrimMaterialStats;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import slimeknights.tconstruct.library.materials.*;
+
+import java.io.IOException;
+
+import static org.softc.armoryexpansion.common.integration.aelib.json.JsonAdapterHelper.*;
+
+/**
+ * Reflection-free adapters for the Tinkers' Construct and Construct's Armory stats classes.
+ * Fields are written in declaration order followed by the inherited {@code materialType},
+ * which is the order Gson's reflective adapter uses.
+ */
+public final class MaterialStatsTypeAdapters {
+    private static final String MATERIAL_TYPE = "materialType";
+
+    public static final TypeAdapter<HeadMaterialStats> HEAD = new StatsTypeAdapter<HeadMaterialStats>() {
+        @Override
+        void writeFields(JsonWriter out, HeadMaterialStats stats) throws IOException {
+            writeInt(out, "durability", stats.durability);
+            writeInt(out, "harvestLevel", stats.harvestLevel);
+            writeFloat(out, "attack", stats.attack);
+            writeFloat(out, "miningspeed", stats.miningspeed);
+        }
+
+        @Override
+        HeadMaterialStats readFields(JsonReader in) throws IOException {
+            int durability = 0;
+            int harvestLevel = 0;
+            float attack = 0;
+            float miningspeed = 0;
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "durability":
+                        durability = nextInt(in, durability);
+                        break;
+                    case "harvestLevel":
+                        harvestLevel = nextInt(in, harvestLevel);
+                        break;
+                    case "attack":
+                        attack = nextFloat(in, attack);
+                        break;
+                    case "miningspeed":
+                        miningspeed = nextFloat(in, miningspeed);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            return new HeadMaterialStats(durability, miningspeed, attack, harvestLevel);
+        }
+    };
+
+    public static final TypeAdapter<HandleMaterialStats> HANDLE = new StatsTypeAdapter<HandleMaterialStats>() {
+        @Override
+        void writeFields(JsonWriter out, HandleMaterialStats stats) throws IOException {
+            writeFloat(out, "modifier", stats.modifier);
+            writeInt(out, "durability", stats.durability);
+        }
+
+        @Override
+        HandleMaterialStats readFields(JsonReader in) throws IOException {
+            float modifier = 0;
+            int durability = 0;
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "modifier":
+                        modifier = nextFloat(in, modifier);
+                        break;
+                    case "durability":
+                        durability = nextInt(in, durability);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            return new HandleMaterialStats(modifier, durability);
+        }
+    };
+
+    public static final TypeAdapter<ExtraMaterialStats> EXTRA = new StatsTypeAdapter<ExtraMaterialStats>() {
+        @Override
+        void writeFields(JsonWriter out, ExtraMaterialStats stats) throws IOException {
+            writeInt(out, "extraDurability", stats.extraDurability);
+        }
+
+        @Override
+        ExtraMaterialStats readFields(JsonReader in) throws IOException {
+            int extraDurability = 0;
+            while (in.hasNext()) {
+                if ("extraDurability".equals(in.nextName())) {
+                    extraDurability = nextInt(in, extraDurability);
+                } else {
+                    in.skipValue();
+                }
+            }
+            return new ExtraMaterialStats(extraDurability);
+        }
+    };
+
+    public static final TypeAdapter<BowMaterialStats> BOW = new StatsTypeAdapter<BowMaterialStats>() {
+        @Override
+        void writeFields(JsonWriter out, BowMaterialStats stats) throws IOException {
+            writeFloat(out, "drawspeed", stats.drawspeed);
+            writeFloat(out, "range", stats.range);
+            writeFloat(out, "bonusDamage", stats.bonusDamage);
+        }
+
+        @Override
+        BowMaterialStats readFields(JsonReader in) throws IOException {
+            float drawspeed = 0;
+            float range = 0;
+            float bonusDamage = 0;
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "drawspeed":
+                        drawspeed = nextFloat(in, drawspeed);
+                        break;
+                    case "range":
+                        range = nextFloat(in, range);
+                        break;
+                    case "bonusDamage":
+                        bonusDamage = nextFloat(in, bonusDamage);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            return new BowMaterialStats(drawspeed, range, bonusDamage);
+        }
+    };
+
+    public static final TypeAdapter<BowStringMaterialStats> BOWSTRING = new StatsTypeAdapter<BowStringMaterialStats>() {
+        @Override
+        void writeFields(JsonWriter out, BowStringMaterialStats stats) throws IOException {
+            writeFloat(out, "modifier", stats.modifier);
+        }
+
+        @Override
+        BowStringMaterialStats readFields(JsonReader in) throws IOException {
+            float modifier = 0;
+            while (in.hasNext()) {
+                if ("modifier".equals(in.nextName())) {
+                    modifier = nextFloat(in, modifier);
+                } else {
+                    in.skipValue();
+                }
+            }
+            return new BowStringMaterialStats(modifier);
+        }
+    };
+
+    public static final TypeAdapter<ArrowShaftMaterialStats> SHAFT = new StatsTypeAdapter<ArrowShaftMaterialStats>() {
+        @Override
+        void writeFields(JsonWriter out, ArrowShaftMaterialStats stats) throws IOException {
+            writeFloat(out, "modifier", stats.modifier);
+            writeInt(out, "bonusAmmo", stats.bonusAmmo);
+        }
+
+        @Override
+        ArrowShaftMaterialStats readFields(JsonReader in) throws IOException {
+            float modifier = 0;
+            int bonusAmmo = 0;
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "modifier":
+                        modifier = nextFloat(in, modifier);
+                        break;
+                    case "bonusAmmo":
+                        bonusAmmo = nextInt(in, bonusAmmo);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            return new ArrowShaftMaterialStats(modifier, bonusAmmo);
+        }
+    };
+
+    public static final TypeAdapter<FletchingMaterialStats> FLETCHING = new StatsTypeAdapter<FletchingMaterialStats>() {
+        @Override
+        void writeFields(JsonWriter out, FletchingMaterialStats stats) throws IOException {
+            writeFloat(out, "accuracy", stats.accuracy);
+            writeFloat(out, "modifier", stats.modifier);
+        }
+
+        @Override
+        FletchingMaterialStats readFields(JsonReader in) throws IOException {
+            float accuracy = 0;
+            float modifier = 0;
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "accuracy":
+                        accuracy = nextFloat(in, accuracy);
+                        break;
+                    case "modifier":
+                        modifier = nextFloat(in, modifier);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            return new FletchingMaterialStats(accuracy, modifier);
+        }
+    };
+
+    public static final TypeAdapter<ProjectileMaterialStats> PROJECTILE = new StatsTypeAdapter<ProjectileMaterialStats>() {
+        @Override
+        void writeFields(JsonWriter out, ProjectileMaterialStats stats) {
+            // Projectile stats carry no values of their own
+        }
+
+        @Override
+        ProjectileMaterialStats readFields(JsonReader in) throws IOException {
+            while (in.hasNext()) {
+                in.nextName();
+                in.skipValue();
+            }
+            return new ProjectileMaterialStats();
+        }
+    };
+
+    public static final TypeAdapter<CoreMaterialStats> CORE = new StatsTypeAdapter<CoreMaterialStats>() {
+        @Override
+        void writeFields(JsonWriter out, CoreMaterialStats stats) throws IOException {
+            writeFloat(out, "durability", stats.durability);
+            writeFloat(out, "defense", stats.defense);
+        }
+
+        @Override
+        CoreMaterialStats readFields(JsonReader in) throws IOException {
+            float durability = 0;
+            float defense = 0;
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "durability":
+                        durability = nextFloat(in, durability);
+                        break;
+                    case "defense":
+                        defense = nextFloat(in, defense);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            return new CoreMaterialStats(durability, defense);
+        }
+    };
+
+    public static final TypeAdapter<PlatesMaterialStats> PLATES = new StatsTypeAdapter<PlatesMaterialStats>() {
+        @Override
+        void writeFields(JsonWriter out, PlatesMaterialStats stats) throws IOException {
+            writeFloat(out, "durability", stats.durability);
+            writeFloat(out, "modifier", stats.modifier);
+            writeFloat(out, "toughness", stats.toughness);
+        }
+
+        @Override
+        PlatesMaterialStats readFields(JsonReader in) throws IOException {
+            float durability = 0;
+            float modifier = 0;
+            float toughness = 0;
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "durability":
+                        durability = nextFloat(in, durability);
+                        break;
+                    case "modifier":
+                        modifier = nextFloat(in, modifier);
+                        break;
+                    case "toughness":
+                        toughness = nextFloat(in, toughness);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            return new PlatesMaterialStats(modifier, durability, toughness);
+        }
+    };
+
+    public static final TypeAdapter<TrimMaterialStats> TRIM = new StatsTypeAdapter<TrimMaterialStats>() {
+        @Override
+        void writeFields(JsonWriter out, TrimMaterialStats stats) throws IOException {
+            writeFloat(out, "extraDurability", stats.extraDurability);
+        }
+
+        @Override
+        TrimMaterialStats readFields(JsonReader in) throws IOException {
+            float extraDurability = 0;
+            while (in.hasNext()) {
+                if ("extraDurability".equals(in.nextName())) {
+                    extraDurability = nextFloat(in, extraDurability);
+                } else {
+                    in.skipValue();
+                }
+            }
+            return new TrimMaterialStats(extraDurability);
+        }
+    };
+
+    private MaterialStatsTypeAdapters() {
+    }
+
+    private abstract static class StatsTypeAdapter<T extends IMaterialStats> extends TypeAdapter<T> {
+        @Override
+        public void write(JsonWriter out, T stats) throws IOException {
+            if (null == stats) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            this.writeFields(out, stats);
+            writeString(out, MATERIAL_TYPE, stats.getIdentifier());
+            out.endObject();
+        }
+
+        @Override
+        public T read(JsonReader in) throws IOException {
+            if (isNull(in)) {
+                return null;
+            }
+            in.beginObject();
+            T stats = this.readFields(in);
+            in.endObject();
+            return stats;
+        }
+
+        abstract void writeFields(JsonWriter out, T stats) throws IOException;
+
+        // The material type is implied by the stats class, so it is skipped like any unknown field
+        abstract T readFields(JsonReader in) throws IOException;
+    }
+}
@@ -5,9 +5,9 @@ import c4.conarm.lib.materials.CoreMaterialStats;
 import c4.conarm.lib.materials.PlatesMaterialStats;
 import c4.conarm.lib.materials.TrimMaterialStats;
 import org.softc.armoryexpansion.client.integration.aelib.plugins.tinkers_construct.material.MaterialRenderType;
-import org.softc.armoryexpansion.common.integration.aelib.config.MaterialConfigOptions;
+import org.softc.armoryexpansion.common.integration.aelib.config.MaterialConfigFlags;
 import org.softc.armoryexpansion.common.integration.aelib.plugins.general.material.BasicMaterial;
-import slimeknights.tconstruct.library.TinkerRegistry;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.registry.MaterialRegistryIndex;
 
 public class ArmorMaterial extends BasicMaterial implements IArmorMaterial{
     protected CoreMaterialStats coreMaterialStats;
@@ -58,40 +58,40 @@ public class ArmorMaterial extends BasicMaterial implements IArmorMaterial{
     }
 
     @Override
-    public boolean registerTinkersMaterialStats(MaterialConfigOptions properties){
-        if (properties.materialEnabled() && properties.armorEnabled()) {
-            slimeknights.tconstruct.library.materials.Material material = TinkerRegistry.getMaterial(this.getIdentifier());
+    public boolean registerTinkersMaterialStats(int flags){
+        if (MaterialConfigFlags.has(flags, MaterialConfigFlags.MATERIAL) && MaterialConfigFlags.has(flags, MaterialConfigFlags.ARMOR)) {
+            slimeknights.tconstruct.library.materials.Material material = MaterialRegistryIndex.getMaterial(this.getIdentifier());
 //            if (!"unknown".equals(material.getIdentifier())) {
-                this.registerArmorStats(material, properties);
+                this.registerArmorStats(material, flags);
                 return true;
 //            }
         }
         return false;
     }
 
-    void registerArmorStats(slimeknights.tconstruct.library.materials.Material material, MaterialConfigOptions properties){
+    void registerArmorStats(slimeknights.tconstruct.library.materials.Material material, int flags){
         if (this.isArmorMaterial()) {
-            this.registerCoreStats(material, properties);
-            this.registerPlatesStats(material, properties);
-            this.registerTrimStats(material, properties);
+            this.registerCoreStats(material, flags);
+            this.registerPlatesStats(material, flags);
+            this.registerTrimStats(material, flags);
         }
     }
 
-    private void registerCoreStats(slimeknights.tconstruct.library.materials.Material material, MaterialConfigOptions properties){
-        if(null == material.getStats(ArmorMaterialType.CORE) && null != this.coreMaterialStats && properties.coreEnabled()){
-            TinkerRegistry.addMaterialStats(material, this.coreMaterialStats);
+    private void registerCoreStats(slimeknights.tconstruct.library.materials.Material material, int flags){
+        if(!MaterialRegistryIndex.hasStats(material, ArmorMaterialType.CORE) && null != this.coreMaterialStats && MaterialConfigFlags.has(flags, MaterialConfigFlags.CORE)){
+            MaterialRegistryIndex.addMaterialStats(material, this.coreMaterialStats);
         }
     }
 
-    private void registerPlatesStats(slimeknights.tconstruct.library.materials.Material material, MaterialConfigOptions properties){
-        if(null == material.getStats(ArmorMaterialType.PLATES) && null != this.platesMaterialStats && properties.platesEnabled()){
-            TinkerRegistry.addMaterialStats(material, this.platesMaterialStats);
+    private void registerPlatesStats(slimeknights.tconstruct.library.materials.Material material, int flags){
+        if(!MaterialRegistryIndex.hasStats(material, ArmorMaterialType.PLATES) && null != this.platesMaterialStats && MaterialConfigFlags.has(flags, MaterialConfigFlags.PLATES)){
+            MaterialRegistryIndex.addMaterialStats(material, this.platesMaterialStats);
         }
     }
 
-    private void registerTrimStats(slimeknights.tconstruct.library.materials.Material material, MaterialConfigOptions properties){
-        if(null == material.getStats(ArmorMaterialType.TRIM) && null != this.trimMaterialStats && properties.trimEnabled()){
-            TinkerRegistry.addMaterialStats(material, this.trimMaterialStats);
+    private void registerTrimStats(slimeknights.tconstruct.library.materials.Material material, int flags){
+        if(!MaterialRegistryIndex.hasStats(material, ArmorMaterialType.TRIM) && null != this.trimMaterialStats && MaterialConfigFlags.has(flags, MaterialConfigFlags.TRIM)){
+            MaterialRegistryIndex.addMaterialStats(material, this.trimMaterialStats);
         }
     }
 }
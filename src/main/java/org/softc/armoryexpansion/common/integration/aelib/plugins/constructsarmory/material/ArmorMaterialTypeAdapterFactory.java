@@ -0,0 +1,256 @@
+package org.softc.armoryexpansion.common.integration.aelib.plugins.constructsarmory.material;
+
+import c4.conarm.lib.materials.CoreMaterialStats;
+import c4.conarm.lib.materials.PlatesMaterialStats;
+import c4.conarm.lib.materials.TrimMaterialStats;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import net.minecraft.util.ResourceLocation;
+import org.softc.armoryexpansion.client.integration.aelib.plugins.tinkers_construct.material.MaterialRenderType;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.general.material.BasicMaterial;
+import slimeknights.tconstruct.library.materials.*;
+
+import java.io.IOException;
+
+import static org.softc.armoryexpansion.common.integration.aelib.json.JsonAdapterHelper.*;
+import static org.softc.armoryexpansion.common.integration.aelib.json.MaterialStatsTypeAdapters.*;
+
+/**
+ * Creates reflection-free adapters for {@link ArmorMaterial}, {@link ArmorToolMaterial} and {@link ArmorToolRangedMaterial}.
+ * Fields are written subclass first, matching the layout Gson's reflective adapter produced.
+ */
+public class ArmorMaterialTypeAdapterFactory implements TypeAdapterFactory {
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (ArmorMaterial.class == rawType || ArmorToolMaterial.class == rawType || ArmorToolRangedMaterial.class == rawType) {
+            return (TypeAdapter<T>) new ArmorMaterialTypeAdapter(rawType);
+        }
+        return null;
+    }
+
+    private static class ArmorMaterialTypeAdapter extends TypeAdapter<ArmorMaterial> {
+        private final Class<?> materialClass;
+
+        ArmorMaterialTypeAdapter(Class<?> materialClass) {
+            this.materialClass = materialClass;
+        }
+
+        @Override
+        public void write(JsonWriter out, ArmorMaterial material) throws IOException {
+            if (null == material) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            if (material instanceof ArmorToolRangedMaterial) {
+                ArmorToolRangedMaterial ranged = (ArmorToolRangedMaterial) material;
+                writeStats(out, "bowMaterialStats", BOW, ranged.bowMaterialStats);
+                writeStats(out, "bowStringMaterialStats", BOWSTRING, ranged.bowStringMaterialStats);
+                writeStats(out, "arrowShaftMaterialStats", SHAFT, ranged.arrowShaftMaterialStats);
+                writeStats(out, "fletchingMaterialStats", FLETCHING, ranged.fletchingMaterialStats);
+                writeStats(out, "projectileMaterialStats", PROJECTILE, ranged.projectileMaterialStats);
+            }
+            if (material instanceof ArmorToolMaterial) {
+                ArmorToolMaterial tool = (ArmorToolMaterial) material;
+                writeStats(out, "headMaterialStats", HEAD, tool.headMaterialStats);
+                writeStats(out, "handleMaterialStats", HANDLE, tool.handleMaterialStats);
+                writeStats(out, "extraMaterialStats", EXTRA, tool.extraMaterialStats);
+            }
+            writeStats(out, "coreMaterialStats", CORE, material.coreMaterialStats);
+            writeStats(out, "platesMaterialStats", PLATES, material.platesMaterialStats);
+            writeStats(out, "trimMaterialStats", TRIM, material.trimMaterialStats);
+            this.writeBasicMaterial(out, material);
+            out.endObject();
+        }
+
+        private void writeBasicMaterial(JsonWriter out, BasicMaterial material) throws IOException {
+            writeString(out, "identifier", material.getIdentifier());
+            writeInt(out, "color", material.getColor());
+            if (null != material.getType()) {
+                writeString(out, "type", material.getType().name());
+            }
+            ResourceLocation texture = material.getTexture();
+            if (null != texture) {
+                out.name("texture").beginObject();
+                writeString(out, "namespace", texture.getNamespace());
+                writeString(out, "path", texture.getPath());
+                out.endObject();
+            }
+            writeBoolean(out, "castable", material.isCastable());
+            writeBoolean(out, "craftable", material.isCraftable());
+        }
+
+        private static <S> void writeStats(JsonWriter out, String name, TypeAdapter<S> adapter, S stats) throws IOException {
+            if (null != stats) {
+                out.name(name);
+                adapter.write(out, stats);
+            }
+        }
+
+        @Override
+        public ArmorMaterial read(JsonReader in) throws IOException {
+            if (isNull(in)) {
+                return null;
+            }
+            Fields fields = new Fields();
+            in.beginObject();
+            while (in.hasNext()) {
+                this.readField(in, in.nextName(), fields);
+            }
+            in.endObject();
+            return this.createMaterial(fields);
+        }
+
+        private void readField(JsonReader in, String name, Fields fields) throws IOException {
+            switch (name) {
+                case "bowMaterialStats":
+                    fields.bow = BOW.read(in);
+                    break;
+                case "bowStringMaterialStats":
+                    fields.bowString = BOWSTRING.read(in);
+                    break;
+                case "arrowShaftMaterialStats":
+                    fields.arrowShaft = SHAFT.read(in);
+                    break;
+                case "fletchingMaterialStats":
+                    fields.fletching = FLETCHING.read(in);
+                    break;
+                case "projectileMaterialStats":
+                    fields.projectile = PROJECTILE.read(in);
+                    break;
+                case "headMaterialStats":
+                    fields.head = HEAD.read(in);
+                    break;
+                case "handleMaterialStats":
+                    fields.handle = HANDLE.read(in);
+                    break;
+                case "extraMaterialStats":
+                    fields.extra = EXTRA.read(in);
+                    break;
+                case "coreMaterialStats":
+                    fields.core = CORE.read(in);
+                    break;
+                case "platesMaterialStats":
+                    fields.plates = PLATES.read(in);
+                    break;
+                case "trimMaterialStats":
+                    fields.trim = TRIM.read(in);
+                    break;
+                case "identifier":
+                    fields.identifier = nextString(in);
+                    break;
+                case "color":
+                    fields.color = nextInt(in, fields.color);
+                    break;
+                case "type":
+                    fields.type = readRenderType(in, fields.type);
+                    break;
+                case "texture":
+                    fields.texture = readTexture(in);
+                    break;
+                case "castable":
+                    fields.castable = nextBoolean(in, fields.castable);
+                    break;
+                case "craftable":
+                    fields.craftable = nextBoolean(in, fields.craftable);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+
+        private static MaterialRenderType readRenderType(JsonReader in, MaterialRenderType defaultType) throws IOException {
+            String name = nextString(in);
+            if (null != name) {
+                for (MaterialRenderType type : MaterialRenderType.values()) {
+                    if (type.name().equals(name)) {
+                        return type;
+                    }
+                }
+            }
+            return defaultType;
+        }
+
+        private static ResourceLocation readTexture(JsonReader in) throws IOException {
+            if (isNull(in)) {
+                return null;
+            }
+            String namespace = null;
+            String path = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "namespace":
+                        namespace = nextString(in);
+                        break;
+                    case "path":
+                        path = nextString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return null != path ? new ResourceLocation(null != namespace ? namespace : "minecraft", path) : null;
+        }
+
+        private ArmorMaterial createMaterial(Fields fields) {
+            ArmorMaterial material;
+            if (ArmorToolRangedMaterial.class == this.materialClass) {
+                ArmorToolRangedMaterial ranged = new ArmorToolRangedMaterial(fields.identifier, fields.color);
+                ranged.bowMaterialStats = fields.bow;
+                ranged.bowStringMaterialStats = fields.bowString;
+                ranged.arrowShaftMaterialStats = fields.arrowShaft;
+                ranged.fletchingMaterialStats = fields.fletching;
+                ranged.projectileMaterialStats = fields.projectile;
+                material = ranged;
+            } else if (ArmorToolMaterial.class == this.materialClass) {
+                material = new ArmorToolMaterial(fields.identifier, fields.color);
+            } else {
+                material = new ArmorMaterial(fields.identifier, fields.color);
+            }
+            if (material instanceof ArmorToolMaterial) {
+                ArmorToolMaterial tool = (ArmorToolMaterial) material;
+                tool.headMaterialStats = fields.head;
+                tool.handleMaterialStats = fields.handle;
+                tool.extraMaterialStats = fields.extra;
+            }
+            material.coreMaterialStats = fields.core;
+            material.platesMaterialStats = fields.plates;
+            material.trimMaterialStats = fields.trim;
+            material.setType(fields.type);
+            material.setTexture(fields.texture);
+            material.setCastable(fields.castable);
+            material.setCraftable(fields.craftable);
+            return material;
+        }
+    }
+
+    private static class Fields {
+        private BowMaterialStats bow;
+        private BowStringMaterialStats bowString;
+        private ArrowShaftMaterialStats arrowShaft;
+        private FletchingMaterialStats fletching;
+        private ProjectileMaterialStats projectile;
+        private HeadMaterialStats head;
+        private HandleMaterialStats handle;
+        private ExtraMaterialStats extra;
+        private CoreMaterialStats core;
+        private PlatesMaterialStats plates;
+        private TrimMaterialStats trim;
+        private String identifier;
+        private int color;
+        private MaterialRenderType type = MaterialRenderType.DEFAULT;
+        private ResourceLocation texture;
+        private boolean castable;
+        private boolean craftable;
+    }
+}
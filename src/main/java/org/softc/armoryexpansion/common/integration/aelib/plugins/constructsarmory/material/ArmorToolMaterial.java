@@ -1,8 +1,12 @@
 package org.softc.armoryexpansion.common.integration.aelib.plugins.constructsarmory.material;
 
-import org.softc.armoryexpansion.common.integration.aelib.config.MaterialConfigOptions;
+import c4.conarm.lib.materials.CoreMaterialStats;
+import c4.conarm.lib.materials.PlatesMaterialStats;
+import c4.conarm.lib.materials.TrimMaterialStats;
+import org.softc.armoryexpansion.client.integration.aelib.plugins.tinkers_construct.material.MaterialRenderType;
+import org.softc.armoryexpansion.common.integration.aelib.config.MaterialConfigFlags;
 import org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.material.IToolMaterial;
-import slimeknights.tconstruct.library.TinkerRegistry;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.registry.MaterialRegistryIndex;
 import slimeknights.tconstruct.library.materials.ExtraMaterialStats;
 import slimeknights.tconstruct.library.materials.HandleMaterialStats;
 import slimeknights.tconstruct.library.materials.HeadMaterialStats;
@@ -17,6 +21,13 @@ public class ArmorToolMaterial extends ArmorMaterial implements IToolMaterial {
         super(identifier, color);
     }
 
+    ArmorToolMaterial(String identifier, int color, MaterialRenderType type, CoreMaterialStats coreMaterialStats, PlatesMaterialStats platesMaterialStats, TrimMaterialStats trimMaterialStats, HeadMaterialStats headMaterialStats, HandleMaterialStats handleMaterialStats, ExtraMaterialStats extraMaterialStats) {
+        super(identifier, color, type, coreMaterialStats, platesMaterialStats, trimMaterialStats);
+        this.headMaterialStats = headMaterialStats;
+        this.handleMaterialStats = handleMaterialStats;
+        this.extraMaterialStats = extraMaterialStats;
+    }
+
     @Override
     public HeadMaterialStats getHeadMaterialStats() {
         return this.headMaterialStats;
@@ -40,41 +51,41 @@ public class ArmorToolMaterial extends ArmorMaterial implements IToolMaterial {
     }
 
     @Override
-    public boolean registerTinkersMaterialStats(MaterialConfigOptions properties){
-        slimeknights.tconstruct.library.materials.Material material = TinkerRegistry.getMaterial(this.getIdentifier());
+    public boolean registerTinkersMaterialStats(int flags){
+        slimeknights.tconstruct.library.materials.Material material = MaterialRegistryIndex.getMaterial(this.getIdentifier());
 //        if (!"unknown".equals(material.getIdentifier())) {
-            if (properties.materialEnabled()) {
-                this.registerArmorStats(material, properties);
-                this.registerToolStats(material, properties);
+            if (MaterialConfigFlags.has(flags, MaterialConfigFlags.MATERIAL)) {
+                this.registerArmorStats(material, flags);
+                this.registerToolStats(material, flags);
                 return true;
             }
 //        }
         return false;
     }
 
-    void registerToolStats(slimeknights.tconstruct.library.materials.Material material, MaterialConfigOptions properties){
+    void registerToolStats(slimeknights.tconstruct.library.materials.Material material, int flags){
         if(this.isToolMaterial()){
-            this.registerHeadStats(material, properties);
-            this.registerHandleStats(material, properties);
-            this.registerExtraStats(material, properties);
+            this.registerHeadStats(material, flags);
+            this.registerHandleStats(material, flags);
+            this.registerExtraStats(material, flags);
         }
     }
 
-    private void registerHeadStats(slimeknights.tconstruct.library.materials.Material material, MaterialConfigOptions properties){
-        if(null == material.getStats(MaterialTypes.HEAD) && null != this.headMaterialStats && properties.isHeadEnabled()){
-            TinkerRegistry.addMaterialStats(material, this.headMaterialStats);
+    private void registerHeadStats(slimeknights.tconstruct.library.materials.Material material, int flags){
+        if(!MaterialRegistryIndex.hasStats(material, MaterialTypes.HEAD) && null != this.headMaterialStats && MaterialConfigFlags.has(flags, MaterialConfigFlags.HEAD)){
+            MaterialRegistryIndex.addMaterialStats(material, this.headMaterialStats);
         }
     }
 
-    private void registerHandleStats(slimeknights.tconstruct.library.materials.Material material, MaterialConfigOptions properties){
-        if(null == material.getStats(MaterialTypes.HANDLE) && null != this.handleMaterialStats && properties.isHandleEnabled()){
-            TinkerRegistry.addMaterialStats(material, this.handleMaterialStats);
+    private void registerHandleStats(slimeknights.tconstruct.library.materials.Material material, int flags){
+        if(!MaterialRegistryIndex.hasStats(material, MaterialTypes.HANDLE) && null != this.handleMaterialStats && MaterialConfigFlags.has(flags, MaterialConfigFlags.HANDLE)){
+            MaterialRegistryIndex.addMaterialStats(material, this.handleMaterialStats);
         }
     }
 
-    private void registerExtraStats(slimeknights.tconstruct.library.materials.Material material, MaterialConfigOptions properties){
-        if(null == material.getStats(MaterialTypes.EXTRA) && null != this.extraMaterialStats && properties.isExtraEnabled()){
-            TinkerRegistry.addMaterialStats(material, this.extraMaterialStats);
+    private void registerExtraStats(slimeknights.tconstruct.library.materials.Material material, int flags){
+        if(!MaterialRegistryIndex.hasStats(material, MaterialTypes.EXTRA) && null != this.extraMaterialStats && MaterialConfigFlags.has(flags, MaterialConfigFlags.EXTRA)){
+            MaterialRegistryIndex.addMaterialStats(material, this.extraMaterialStats);
         }
     }
 }
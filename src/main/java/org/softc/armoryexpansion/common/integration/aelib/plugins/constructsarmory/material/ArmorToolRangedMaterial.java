@@ -1,8 +1,12 @@
 package org.softc.armoryexpansion.common.integration.aelib.plugins.constructsarmory.material;
 
-import org.softc.armoryexpansion.common.integration.aelib.config.MaterialConfigOptions;
+import c4.conarm.lib.materials.CoreMaterialStats;
+import c4.conarm.lib.materials.PlatesMaterialStats;
+import c4.conarm.lib.materials.TrimMaterialStats;
+import org.softc.armoryexpansion.client.integration.aelib.plugins.tinkers_construct.material.MaterialRenderType;
+import org.softc.armoryexpansion.common.integration.aelib.config.MaterialConfigFlags;
 import org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.material.IRangedMaterial;
-import slimeknights.tconstruct.library.TinkerRegistry;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.registry.MaterialRegistryIndex;
 import slimeknights.tconstruct.library.materials.*;
 
 public class ArmorToolRangedMaterial extends ArmorToolMaterial implements IRangedMaterial {
@@ -16,6 +20,19 @@ public class ArmorToolRangedMaterial extends ArmorToolMaterial implements IRange
         super(identifier, color);
     }
 
+    public ArmorToolRangedMaterial(String identifier, int color, MaterialRenderType type,
+                                   CoreMaterialStats coreMaterialStats, PlatesMaterialStats platesMaterialStats, TrimMaterialStats trimMaterialStats,
+                                   HeadMaterialStats headMaterialStats, HandleMaterialStats handleMaterialStats, ExtraMaterialStats extraMaterialStats,
+                                   BowMaterialStats bowMaterialStats, BowStringMaterialStats bowStringMaterialStats, ArrowShaftMaterialStats arrowShaftMaterialStats,
+                                   FletchingMaterialStats fletchingMaterialStats, ProjectileMaterialStats projectileMaterialStats) {
+        super(identifier, color, type, coreMaterialStats, platesMaterialStats, trimMaterialStats, headMaterialStats, handleMaterialStats, extraMaterialStats);
+        this.bowMaterialStats = bowMaterialStats;
+        this.bowStringMaterialStats = bowStringMaterialStats;
+        this.arrowShaftMaterialStats = arrowShaftMaterialStats;
+        this.fletchingMaterialStats = fletchingMaterialStats;
+        this.projectileMaterialStats = projectileMaterialStats;
+    }
+
     @Override
     public BowMaterialStats getBowMaterialStats() {
         return this.bowMaterialStats;
@@ -47,49 +64,49 @@ public class ArmorToolRangedMaterial extends ArmorToolMaterial implements IRange
     }
 
     @Override
-    public boolean registerTinkersMaterialStats(MaterialConfigOptions properties) {
-        if (properties.materialEnabled()) {
-            Material material = TinkerRegistry.getMaterial(this.getIdentifier());
+    public boolean registerTinkersMaterialStats(int flags) {
+        if (MaterialConfigFlags.has(flags, MaterialConfigFlags.MATERIAL)) {
+            Material material = MaterialRegistryIndex.getMaterial(this.getIdentifier());
 //            if (!"unknown".equals(material.getIdentifier())) {
-                this.registerArmorStats(material, properties);
-                this.registerToolStats(material, properties);
-                this.registerRangedStats(material, properties);
+                this.registerArmorStats(material, flags);
+                this.registerToolStats(material, flags);
+                this.registerRangedStats(material, flags);
                 return true;
 //            }
         }
         return false;
     }
 
-    protected void registerRangedStats(Material material, MaterialConfigOptions properties){
+    protected void registerRangedStats(Material material, int flags){
         if(this.isRangedMaterial()){
-            this.registerBowStats(material, properties);
-            this.registerBowStringStats(material, properties);
-            this.registerFletchingStats(material, properties);
-            this.registerProjectileStats(material, properties);
+            this.registerBowStats(material, flags);
+            this.registerBowStringStats(material, flags);
+            this.registerFletchingStats(material, flags);
+            this.registerProjectileStats(material, flags);
         }
     }
 
-    private void registerBowStats(Material material, MaterialConfigOptions properties){
-        if(null == material.getStats(MaterialTypes.BOW) && null != this.bowMaterialStats && properties.isBowEnabled()){
-            TinkerRegistry.addMaterialStats(material, this.bowMaterialStats);
+    private void registerBowStats(Material material, int flags){
+        if(!MaterialRegistryIndex.hasStats(material, MaterialTypes.BOW) && null != this.bowMaterialStats && MaterialConfigFlags.has(flags, MaterialConfigFlags.BOW)){
+            MaterialRegistryIndex.addMaterialStats(material, this.bowMaterialStats);
         }
     }
 
-    private void registerBowStringStats(Material material, MaterialConfigOptions properties){
-        if(null == material.getStats(MaterialTypes.BOWSTRING) && null != this.bowStringMaterialStats && properties.isBowStringEnabled()){
-            TinkerRegistry.addMaterialStats(material, this.bowStringMaterialStats);
+    private void registerBowStringStats(Material material, int flags){
+        if(!MaterialRegistryIndex.hasStats(material, MaterialTypes.BOWSTRING) && null != this.bowStringMaterialStats && MaterialConfigFlags.has(flags, MaterialConfigFlags.BOWSTRING)){
+            MaterialRegistryIndex.addMaterialStats(material, this.bowStringMaterialStats);
         }
     }
 
-    private void registerFletchingStats(Material material, MaterialConfigOptions properties){
-        if(null == material.getStats(MaterialTypes.FLETCHING) && null != this.fletchingMaterialStats && properties.isFletchingEnabled()){
-            TinkerRegistry.addMaterialStats(material, this.fletchingMaterialStats);
+    private void registerFletchingStats(Material material, int flags){
+        if(!MaterialRegistryIndex.hasStats(material, MaterialTypes.FLETCHING) && null != this.fletchingMaterialStats && MaterialConfigFlags.has(flags, MaterialConfigFlags.FLETCHING)){
+            MaterialRegistryIndex.addMaterialStats(material, this.fletchingMaterialStats);
         }
     }
 
-    private void registerProjectileStats(Material material, MaterialConfigOptions properties){
-        if(null == material.getStats(MaterialTypes.PROJECTILE) && null != this.projectileMaterialStats && properties.isProjectileEnabled()){
-            TinkerRegistry.addMaterialStats(material, this.projectileMaterialStats);
+    private void registerProjectileStats(Material material, int flags){
+        if(!MaterialRegistryIndex.hasStats(material, MaterialTypes.PROJECTILE) && null != this.projectileMaterialStats && MaterialConfigFlags.has(flags, MaterialConfigFlags.PROJECTILE)){
+            MaterialRegistryIndex.addMaterialStats(material, this.projectileMaterialStats);
         }
     }
 }
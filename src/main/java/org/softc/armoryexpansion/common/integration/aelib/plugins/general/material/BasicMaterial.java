@@ -1,19 +1,16 @@
 package org.softc.armoryexpansion.common.integration.aelib.plugins.general.material;
 
 import net.minecraft.block.Block;
-import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.ResourceLocation;
-import net.minecraftforge.fluids.Fluid;
-import net.minecraftforge.fluids.FluidRegistry;
 import net.minecraftforge.fml.common.FMLCommonHandler;
-import net.minecraftforge.fml.common.event.FMLInterModComms;
 import net.minecraftforge.fml.relauncher.Side;
 import org.softc.armoryexpansion.client.integration.aelib.plugins.tinkers_construct.material.MaterialRenderHelper;
 import org.softc.armoryexpansion.client.integration.aelib.plugins.tinkers_construct.material.MaterialRenderType;
-import slimeknights.tconstruct.TConstruct;
-import slimeknights.tconstruct.library.TinkerRegistry;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.registry.MaterialRegistryIndex;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.smeltery.SmelteryRegistration;
 import slimeknights.tconstruct.library.fluid.FluidMolten;
-import slimeknights.tconstruct.smeltery.block.BlockMolten;
+
+import java.util.Objects;
 
 public abstract class BasicMaterial implements IBasicMaterial {
     protected String identifier;
@@ -43,6 +40,14 @@ public abstract class BasicMaterial implements IBasicMaterial {
         this.craftable = craftable;
     }
 
+    public void setType(MaterialRenderType type) {
+        this.type = type;
+    }
+
+    public void setTexture(ResourceLocation texture) {
+        this.texture = texture;
+    }
+
     @Override
     public boolean isCastable() {
         return this.castable;
@@ -75,7 +80,7 @@ public abstract class BasicMaterial implements IBasicMaterial {
 
     @Override
     public boolean registerTinkersMaterial(boolean canRegister){
-        if (!canRegister || !"unknown".equals(TinkerRegistry.getMaterial(this.identifier).getIdentifier())) {
+        if (!canRegister || MaterialRegistryIndex.isRegistered(this.identifier)) {
             return false;
         }
 
@@ -86,36 +91,35 @@ public abstract class BasicMaterial implements IBasicMaterial {
         if(Side.CLIENT == FMLCommonHandler.instance().getSide()){
             MaterialRenderHelper.setMaterialRenderInfo(material, this);
         }
-        this.registerTinkersFluid(true);
-        TinkerRegistry.addMaterial(material);
-        TinkerRegistry.integrate(material);
+        MaterialRegistryIndex.addMaterial(material);
+        MaterialRegistryIndex.integrate(material);
         return true;
     }
 
     @Override
     public boolean registerTinkersFluid(boolean canRegister){
-        if (!canRegister || !this.castable) {
+        if (!this.castable) {
             return false;
         }
-
-        Fluid materialFluid = new FluidMolten(this.getFluidName(), this.color);
-        materialFluid.setUnlocalizedName(this.getFluidName());
-        FluidRegistry.registerFluid(materialFluid);
-        FluidRegistry.addBucketForFluid(materialFluid);
-        return true;
+        if (!canRegister) {
+            MaterialFluids.skip();
+            return false;
+        }
+        return MaterialFluids.register(this.getFluidName(), this.color, this);
     }
 
     @Override
     public boolean registerTinkersFluidIMC(boolean canRegister){
+        return this.registerTinkersSmeltery(canRegister, false);
+    }
+
+    @Override
+    public boolean registerTinkersSmeltery(boolean canRegister, boolean direct){
         if (!canRegister || !this.castable) {
             return false;
         }
 
-        NBTTagCompound tag = new NBTTagCompound();
-        tag.setString("fluid", this.getFluidName());
-        tag.setString("ore", this.identifier);
-        tag.setBoolean("toolforge", true);
-        FMLInterModComms.sendMessage(TConstruct.modID, "integrateSmeltery", tag);
+        SmelteryRegistration.integrateSmeltery(this.getFluidName(), this.identifier, direct);
         return true;
     }
 
@@ -126,16 +130,21 @@ public abstract class BasicMaterial implements IBasicMaterial {
 
     @Override
     public FluidMolten getFluid(){
-        return new FluidMolten(this.getFluidName(), this.color);
+        return MaterialFluids.getFluid(this.getFluidName(), this.color, this);
     }
 
     @Override
     public Block getFluidBlock(){
-        return new BlockMolten(this.getFluid());
+        return MaterialFluids.getFluidBlock(this.getFluidName(), this.color, this);
     }
 
     @Override
     public boolean equals(Object obj) {
-        return obj instanceof BasicMaterial && this.identifier.equals(((IBasicMaterial) obj).getIdentifier());
+        return obj instanceof BasicMaterial && Objects.equals(this.identifier, ((IBasicMaterial) obj).getIdentifier());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(this.identifier);
     }
 }
@@ -3,7 +3,7 @@ package org.softc.armoryexpansion.common.integration.aelib.plugins.general.mater
 import net.minecraft.block.Block;
 import net.minecraft.util.ResourceLocation;
 import org.softc.armoryexpansion.client.integration.aelib.plugins.tinkers_construct.material.MaterialRenderType;
-import org.softc.armoryexpansion.common.integration.aelib.config.MaterialConfigOptions;
+import org.softc.armoryexpansion.common.integration.aelib.config.MaterialConfigFlags;
 import slimeknights.tconstruct.library.fluid.FluidMolten;
 
 public interface IBasicMaterial {
@@ -37,5 +37,13 @@ public interface IBasicMaterial {
 
     boolean registerTinkersFluidIMC(boolean canRegister);
 
-    boolean registerTinkersMaterialStats(MaterialConfigOptions properties);
+    /**
+     * @param direct whether to call the Tinkers' registry directly instead of sending an IMC message, when possible
+     */
+    boolean registerTinkersSmeltery(boolean canRegister, boolean direct);
+
+    /**
+     * @param flags the {@link MaterialConfigFlags} of the material, deciding which parts get stats
+     */
+    boolean registerTinkersMaterialStats(int flags);
 }
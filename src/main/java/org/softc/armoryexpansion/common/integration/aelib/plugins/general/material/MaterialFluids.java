@@ -0,0 +1,97 @@
+package org.softc.armoryexpansion.common.integration.aelib.plugins.general.material;
+
+import net.minecraft.block.Block;
+import net.minecraftforge.fluids.Fluid;
+import net.minecraftforge.fluids.FluidRegistry;
+import slimeknights.tconstruct.library.fluid.FluidMolten;
+import slimeknights.tconstruct.smeltery.block.BlockMolten;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the molten fluid and fluid block of each material once, shared by all integrations,
+ * and keeps a fluid from being registered twice.
+ */
+public final class MaterialFluids {
+    private static final Map<String, FluidMolten> FLUIDS = new ConcurrentHashMap<>();
+    private static final Map<String, Block> BLOCKS = new ConcurrentHashMap<>();
+    private static final Set<String> CLAIMED_BLOCKS = ConcurrentHashMap.newKeySet();
+    private static final Map<String, Object> OWNERS = new ConcurrentHashMap<>();
+    private static final Map<String, Set<Object>> USERS = new ConcurrentHashMap<>();
+
+    private static final AtomicInteger CREATED = new AtomicInteger();
+    private static final AtomicInteger REUSED = new AtomicInteger();
+    private static final AtomicInteger SKIPPED = new AtomicInteger();
+
+    private MaterialFluids() {
+    }
+
+    /**
+     * @return the fluid of the material, counted as reused when another material created it
+     */
+    public static FluidMolten getFluid(String fluidName, int color, Object material) {
+        FluidMolten fluid = getOrCreate(fluidName, color, material);
+        if (OWNERS.get(fluidName) != material && getUsers(fluidName).add(material)) {
+            REUSED.incrementAndGet();
+        }
+        return fluid;
+    }
+
+    public static Block getFluidBlock(String fluidName, int color, Object material) {
+        return BLOCKS.computeIfAbsent(fluidName, name -> new BlockMolten(getOrCreate(name, color, material)));
+    }
+
+    private static FluidMolten getOrCreate(String fluidName, int color, Object material) {
+        return FLUIDS.computeIfAbsent(fluidName, name -> {
+            CREATED.incrementAndGet();
+            OWNERS.put(name, material);
+            FluidMolten molten = new FluidMolten(name, color);
+            molten.setUnlocalizedName(name);
+            return molten;
+        });
+    }
+
+    // Materials of different integrations can be equal, so the users are told apart by identity
+    private static Set<Object> getUsers(String fluidName) {
+        return USERS.computeIfAbsent(fluidName, name -> Collections.newSetFromMap(Collections.synchronizedMap(new IdentityHashMap<>())));
+    }
+
+    /**
+     * @return whether the fluid was registered, false if a fluid with the same name already is
+     */
+    public static boolean register(String fluidName, int color, Object material) {
+        if (FluidRegistry.isFluidRegistered(fluidName)) {
+            SKIPPED.incrementAndGet();
+            return false;
+        }
+        FluidMolten fluid = getOrCreate(fluidName, color, material);
+        FluidRegistry.registerFluid(fluid);
+        FluidRegistry.addBucketForFluid(fluid);
+        return true;
+    }
+
+    /**
+     * @return true the first time it is called for a fluid registered here, false if the block was already claimed,
+     * or if the fluid is disabled or was registered by another mod, which then owns its block
+     */
+    public static boolean claimFluidBlock(String fluidName) {
+        Fluid fluid = FLUIDS.get(fluidName);
+        return null != fluid && fluid == FluidRegistry.getFluid(fluidName) && CLAIMED_BLOCKS.add(fluidName);
+    }
+
+    /**
+     * Counts a fluid that was not registered because it is disabled.
+     */
+    public static void skip() {
+        SKIPPED.incrementAndGet();
+    }
+
+    public static String getSummary() {
+        return "Fluids: " + CREATED.get() + " created, " + REUSED.get() + " reused, " + SKIPPED.get() + " skipped";
+    }
+}
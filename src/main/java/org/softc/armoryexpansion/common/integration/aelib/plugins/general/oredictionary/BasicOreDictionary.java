@@ -2,49 +2,71 @@ package org.softc.armoryexpansion.common.integration.aelib.plugins.general.oredi
 
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
-import net.minecraftforge.oredict.OreDictionary;
 import org.jetbrains.annotations.Nullable;
-import slimeknights.tconstruct.library.TinkerRegistry;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.registry.MaterialRegistryIndex;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
 
 public class BasicOreDictionary implements IOreDictionary {
     protected String identifier;
     protected ItemHolder[] entries;
 
+    public BasicOreDictionary() {
+    }
+
+    public BasicOreDictionary(String identifier, ItemHolder[] entries) {
+        this.identifier = identifier;
+        this.entries = entries;
+    }
+
     @Override
     public String getIdentifier() {
         return this.identifier;
     }
 
+    public ItemHolder[] getEntries() {
+        return this.entries;
+    }
+
     @Override
     public @Nullable Item getItem(ItemHolder itemHolder) {
-        return null != itemHolder ? Item.getByNameOrId(itemHolder.getItemName()) : null;
+        return null != itemHolder ? ItemResolver.getItem(itemHolder.getItemName()) : null;
     }
 
     @Override
     public @Nullable ItemStack getItemStack(ItemHolder itemHolder) {
-        return null != this.getItem(itemHolder) ? new ItemStack(this.getItem(itemHolder), 1, itemHolder.getMeta()) : null;
+        return null != itemHolder ? ItemResolver.getItemStack(itemHolder.getItemName(), itemHolder.getMeta()) : null;
     }
 
     @Override
     public void registerOreDict() {
+        OreDictionaryBatch.getShared().add(this.identifier, this.getItemStacks());
+    }
+
+    @Override
+    public List<ItemStack> getItemStacks() {
+        List<ItemStack> stacks = new ArrayList<>(this.entries.length);
         for (ItemHolder itemHolder : this.entries) {
             ItemStack stack = this.getItemStack(itemHolder);
             if (null != stack) {
-                OreDictionary.registerOre(this.identifier, stack);
+                stacks.add(stack);
             }
         }
+        return stacks;
     }
 
     @Override
     public boolean updateTinkersMaterial(boolean canRegister){
-        slimeknights.tconstruct.library.materials.Material material = TinkerRegistry.getMaterial(this.identifier);
-        if (!"unknown".equals(material.identifier) && canRegister) {
+        if (canRegister && MaterialRegistryIndex.isRegistered(this.identifier)) {
+            slimeknights.tconstruct.library.materials.Material material = MaterialRegistryIndex.getMaterial(this.identifier);
             for (ItemHolder itemHolder : this.entries) {
-                material.addItem(this.getItem(itemHolder));
+                Item item = this.getItem(itemHolder);
+                if (null != item) {
+                    material.addItem(item);
+                }
             }
-            material.setRepresentativeItem(this.getItemStack(Arrays.stream(this.entries).findFirst().orElse(null)));
+            material.setRepresentativeItem(0 < this.entries.length ? this.getItemStack(this.entries[0]) : null);
             return true;
         }
         return false;
@@ -0,0 +1,102 @@
+package org.softc.armoryexpansion.common.integration.aelib.plugins.general.oredictionary;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.softc.armoryexpansion.common.integration.aelib.json.JsonAdapterHelper.*;
+
+public class BasicOreDictionaryTypeAdapter extends TypeAdapter<BasicOreDictionary> {
+    @Override
+    public void write(JsonWriter out, BasicOreDictionary oreDictionary) throws IOException {
+        if (null == oreDictionary) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        writeString(out, "identifier", oreDictionary.identifier);
+        if (null != oreDictionary.entries) {
+            out.name("entries").beginArray();
+            for (ItemHolder itemHolder : oreDictionary.entries) {
+                writeItemHolder(out, itemHolder);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeItemHolder(JsonWriter out, ItemHolder itemHolder) throws IOException {
+        if (null == itemHolder) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        writeString(out, "itemName", itemHolder.itemName);
+        writeInt(out, "meta", itemHolder.meta);
+        out.endObject();
+    }
+
+    @Override
+    public BasicOreDictionary read(JsonReader in) throws IOException {
+        if (isNull(in)) {
+            return null;
+        }
+        BasicOreDictionary oreDictionary = new BasicOreDictionary();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "identifier":
+                    oreDictionary.identifier = nextString(in);
+                    break;
+                case "entries":
+                    oreDictionary.entries = readItemHolders(in);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return oreDictionary;
+    }
+
+    private static ItemHolder[] readItemHolders(JsonReader in) throws IOException {
+        if (isNull(in)) {
+            return null;
+        }
+        List<ItemHolder> itemHolders = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            itemHolders.add(readItemHolder(in));
+        }
+        in.endArray();
+        return itemHolders.toArray(new ItemHolder[0]);
+    }
+
+    private static ItemHolder readItemHolder(JsonReader in) throws IOException {
+        if (isNull(in)) {
+            return null;
+        }
+        ItemHolder itemHolder = new ItemHolder();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "itemName":
+                    itemHolder.itemName = nextString(in);
+                    break;
+                case "meta":
+                    itemHolder.meta = nextInt(in, itemHolder.meta);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return itemHolder;
+    }
+}
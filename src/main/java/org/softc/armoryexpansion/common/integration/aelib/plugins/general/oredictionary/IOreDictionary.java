@@ -3,6 +3,8 @@ package org.softc.armoryexpansion.common.integration.aelib.plugins.general.oredi
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 
+import java.util.List;
+
 public interface IOreDictionary {
     String getIdentifier();
 
@@ -10,7 +12,15 @@ public interface IOreDictionary {
 
     ItemStack getItemStack(ItemHolder itemHolder);
 
+    /**
+     * Adds the entries to the {@link OreDictionaryBatch#getShared() shared batch}, they are registered with it.
+     */
     void registerOreDict();
 
+    /**
+     * @return a stack for every entry whose item exists
+     */
+    List<ItemStack> getItemStacks();
+
     boolean updateTinkersMaterial(boolean canRegister);
 }
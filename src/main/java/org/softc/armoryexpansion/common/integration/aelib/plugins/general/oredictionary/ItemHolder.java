@@ -4,6 +4,14 @@ public class ItemHolder implements IItemHolder {
     protected String itemName;
     protected int meta;
 
+    public ItemHolder() {
+    }
+
+    public ItemHolder(String itemName, int meta) {
+        this.itemName = itemName;
+        this.meta = meta;
+    }
+
     public String getItemName() {
         return this.itemName;
     }
@@ -0,0 +1,100 @@
+package org.softc.armoryexpansion.common.integration.aelib.plugins.general.oredictionary;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import org.apache.logging.log4j.Logger;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the items named by ore dictionary entries once, shared by all integrations.
+ * Only used once items are registered, since a name that does not resolve is remembered as missing.
+ */
+public final class ItemResolver {
+    private static final Map<String, Optional<Item>> ITEMS = new ConcurrentHashMap<>();
+    private static final Map<Key, ItemStack> STACKS = new ConcurrentHashMap<>();
+    // The metadata values each unresolved name was asked for, so repeated lookups of an entry are counted once
+    private static final Map<String, Set<Integer>> UNRESOLVED = new ConcurrentHashMap<>();
+    private static final Set<String> REPORTED = ConcurrentHashMap.newKeySet();
+
+    private ItemResolver() {
+    }
+
+    /**
+     * @return the registered item, or null if there is none with that name
+     */
+    public static Item getItem(String itemName) {
+        Item item = resolve(itemName);
+        if (null == item && null != itemName) {
+            getUnresolvedMetas(itemName);
+        }
+        return item;
+    }
+
+    /**
+     * @return a new stack of one item, or null if there is no item with that name
+     */
+    public static ItemStack getItemStack(String itemName, int meta) {
+        Item item = resolve(itemName);
+        if (null == item) {
+            if (null != itemName) {
+                getUnresolvedMetas(itemName).add(meta);
+            }
+            return null;
+        }
+        // Stacks are mutable, so callers get a copy of the cached one
+        return STACKS.computeIfAbsent(new Key(itemName, meta), key -> new ItemStack(item, 1, meta)).copy();
+    }
+
+    private static Item resolve(String itemName) {
+        if (null == itemName) {
+            return null;
+        }
+        return ITEMS.computeIfAbsent(itemName, name -> Optional.ofNullable(Item.getByNameOrId(name))).orElse(null);
+    }
+
+    private static Set<Integer> getUnresolvedMetas(String itemName) {
+        return UNRESOLVED.computeIfAbsent(itemName, name -> ConcurrentHashMap.newKeySet());
+    }
+
+    /**
+     * Logs the item names that could not be resolved since the last report, each name is only reported once.
+     */
+    public static void reportUnresolved(Logger logger) {
+        List<String> names = new ArrayList<>();
+        int references = 0;
+        for (Map.Entry<String, Set<Integer>> entry : UNRESOLVED.entrySet()) {
+            if (REPORTED.add(entry.getKey())) {
+                names.add(entry.getKey());
+                // A name only looked up without metadata still stands for one entry
+                references += Math.max(1, entry.getValue().size());
+            }
+        }
+        if (!names.isEmpty()) {
+            Collections.sort(names);
+            logger.warn("Could not resolve " + names.size() + " item names used by " + references + " ore dictionary entries: "
+                    + String.join(", ", names));
+        }
+    }
+
+    private static final class Key {
+        private final String itemName;
+        private final int meta;
+
+        Key(String itemName, int meta) {
+            this.itemName = itemName;
+            this.meta = meta;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && this.meta == ((Key) obj).meta && this.itemName.equals(((Key) obj).itemName);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * this.itemName.hashCode() + this.meta;
+        }
+    }
+}
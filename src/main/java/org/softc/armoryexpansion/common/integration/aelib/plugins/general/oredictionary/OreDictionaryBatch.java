@@ -0,0 +1,90 @@
+package org.softc.armoryexpansion.common.integration.aelib.plugins.general.oredictionary;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.oredict.OreDictionary;
+
+import java.util.*;
+
+/**
+ * Collects ore dictionary entries and registers only those that are not in the ore dictionary yet,
+ * whether another integration or the mod adding the item registered them.
+ * The existing entries of each ore name are read once, so checking a pair is a hash lookup.
+ * The integrations all add to the {@link #getShared() shared batch}, which is registered once after the last one's init.
+ */
+public class OreDictionaryBatch {
+    private static final OreDictionaryBatch SHARED = new OreDictionaryBatch();
+
+    private final Map<String, List<ItemStack>> entries = new LinkedHashMap<>();
+    private int added;
+    private int skipped;
+
+    public static OreDictionaryBatch getShared() {
+        return SHARED;
+    }
+
+    public void add(String oreName, Collection<ItemStack> stacks) {
+        if (null != oreName && !stacks.isEmpty()) {
+            this.entries.computeIfAbsent(oreName, name -> new ArrayList<>()).addAll(stacks);
+        }
+    }
+
+    public void register() {
+        Set<Key> registered = new HashSet<>();
+        this.entries.forEach((oreName, stacks) -> {
+            if (OreDictionary.doesOreNameExist(oreName)) {
+                for (ItemStack existing : OreDictionary.getOres(oreName, false)) {
+                    registered.add(new Key(oreName, existing.getItem(), existing.getItemDamage()));
+                }
+            }
+            for (ItemStack stack : stacks) {
+                Key key = new Key(oreName, stack.getItem(), stack.getItemDamage());
+                if (registered.contains(new Key(oreName, stack.getItem(), OreDictionary.WILDCARD_VALUE)) || !registered.add(key)) {
+                    this.skipped++;
+                } else {
+                    OreDictionary.registerOre(oreName, stack);
+                    this.added++;
+                }
+            }
+        });
+        this.entries.clear();
+    }
+
+    public boolean isEmpty() {
+        return this.entries.isEmpty();
+    }
+
+    public int getAdded() {
+        return this.added;
+    }
+
+    public int getSkipped() {
+        return this.skipped;
+    }
+
+    private static final class Key {
+        private final String oreName;
+        private final Item item;
+        private final int meta;
+
+        Key(String oreName, Item item, int meta) {
+            this.oreName = oreName;
+            this.item = item;
+            this.meta = meta;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return this.item == other.item && this.meta == other.meta && this.oreName.equals(other.oreName);
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * this.oreName.hashCode() + System.identityHashCode(this.item)) * 31 + this.meta;
+        }
+    }
+}
@@ -1,9 +1,10 @@
 package org.softc.armoryexpansion.common.integration.aelib.plugins.general.traits;
 
-import slimeknights.tconstruct.library.TinkerRegistry;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.registry.MaterialRegistryIndex;
 import slimeknights.tconstruct.library.traits.ITrait;
 
 import java.util.List;
+import java.util.Objects;
 
 public class MaterialTraits {
     protected String identifier;
@@ -26,21 +27,32 @@ public class MaterialTraits {
     }
 
     public boolean registerTinkersMaterialTraits(boolean canRegister) {
-        slimeknights.tconstruct.library.materials.Material material = TinkerRegistry.getMaterial(this.identifier);
-        if ("unknown".equals(material.identifier) || !canRegister) {
+        if (!canRegister || !MaterialRegistryIndex.isRegistered(this.identifier)) {
             return false;
         }
+        slimeknights.tconstruct.library.materials.Material material = MaterialRegistryIndex.getMaterial(this.identifier);
         this.traits.forEach(t -> {
             if (null != t.getTraitNames()) {
                 t.getTraitNames().forEach(name -> {
-                    ITrait trait = TinkerRegistry.getTrait(name);
+                    ITrait trait = TraitLookup.getTrait(name);
                     if(null != trait){
                         material.addTrait(trait, t.getTraitPart());
                     }
                 });
             }
         });
-        TinkerRegistry.integrate(material);
+        // All parts are applied to the material first, it is integrated at most once
+        MaterialRegistryIndex.integrate(material);
         return !this.traits.isEmpty();
     }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof MaterialTraits && Objects.equals(this.identifier, ((MaterialTraits) obj).identifier);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(this.identifier);
+    }
 }
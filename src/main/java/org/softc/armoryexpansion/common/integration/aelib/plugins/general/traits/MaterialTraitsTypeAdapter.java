@@ -0,0 +1,122 @@
+package org.softc.armoryexpansion.common.integration.aelib.plugins.general.traits;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.softc.armoryexpansion.common.integration.aelib.json.JsonAdapterHelper.*;
+
+public class MaterialTraitsTypeAdapter extends TypeAdapter<MaterialTraits> {
+    @Override
+    public void write(JsonWriter out, MaterialTraits materialTraits) throws IOException {
+        if (null == materialTraits) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        writeString(out, "identifier", materialTraits.identifier);
+        if (null != materialTraits.traits) {
+            out.name("traits").beginArray();
+            for (TraitHolder holder : materialTraits.traits) {
+                writeTraitHolder(out, holder);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static void writeTraitHolder(JsonWriter out, TraitHolder holder) throws IOException {
+        if (null == holder) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        if (null != holder.getTraitNames()) {
+            out.name("traitNames").beginArray();
+            for (String name : holder.getTraitNames()) {
+                out.value(name);
+            }
+            out.endArray();
+        }
+        writeString(out, "traitPart", holder.getTraitPart());
+        out.endObject();
+    }
+
+    @Override
+    public MaterialTraits read(JsonReader in) throws IOException {
+        if (isNull(in)) {
+            return null;
+        }
+        MaterialTraits materialTraits = new MaterialTraits();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "identifier":
+                    materialTraits.identifier = nextString(in);
+                    break;
+                case "traits":
+                    materialTraits.traits = readTraitHolders(in);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return materialTraits;
+    }
+
+    private static List<TraitHolder> readTraitHolders(JsonReader in) throws IOException {
+        if (isNull(in)) {
+            return null;
+        }
+        List<TraitHolder> holders = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            holders.add(readTraitHolder(in));
+        }
+        in.endArray();
+        return holders;
+    }
+
+    private static TraitHolder readTraitHolder(JsonReader in) throws IOException {
+        if (isNull(in)) {
+            return null;
+        }
+        List<String> names = null;
+        String part = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "traitNames":
+                    names = readStrings(in);
+                    break;
+                case "traitPart":
+                    part = nextString(in);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return new TraitHolder(names, part);
+    }
+
+    private static List<String> readStrings(JsonReader in) throws IOException {
+        if (isNull(in)) {
+            return null;
+        }
+        List<String> strings = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            strings.add(nextString(in));
+        }
+        in.endArray();
+        return strings;
+    }
+}
@@ -0,0 +1,54 @@
+package org.softc.armoryexpansion.common.integration.aelib.plugins.general.traits;
+
+import org.apache.logging.log4j.Logger;
+import slimeknights.tconstruct.library.TinkerRegistry;
+import slimeknights.tconstruct.library.traits.ITrait;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Looks up each trait name in the Tinkers' registry once, shared by all integrations.
+ * Trait names that do not exist are counted and reported together instead of being skipped silently.
+ */
+public final class TraitLookup {
+    private static final Map<String, Optional<ITrait>> TRAITS = new ConcurrentHashMap<>();
+    private static final Map<String, AtomicInteger> UNKNOWN = new ConcurrentHashMap<>();
+    private static final Set<String> REPORTED = ConcurrentHashMap.newKeySet();
+
+    private TraitLookup() {
+    }
+
+    /**
+     * @return the trait, or null if none is registered under that name
+     */
+    public static ITrait getTrait(String name) {
+        if (null == name) {
+            return null;
+        }
+        ITrait trait = TRAITS.computeIfAbsent(name, key -> Optional.ofNullable(TinkerRegistry.getTrait(key))).orElse(null);
+        if (null == trait) {
+            UNKNOWN.computeIfAbsent(name, key -> new AtomicInteger()).incrementAndGet();
+        }
+        return trait;
+    }
+
+    /**
+     * Logs the trait names that were not found since the last report, each name is only reported once.
+     */
+    public static void reportUnknown(Logger logger) {
+        List<String> names = new ArrayList<>();
+        int references = 0;
+        for (Map.Entry<String, AtomicInteger> entry : UNKNOWN.entrySet()) {
+            if (REPORTED.add(entry.getKey())) {
+                names.add(entry.getKey());
+                references += entry.getValue().get();
+            }
+        }
+        if (!names.isEmpty()) {
+            Collections.sort(names);
+            logger.warn("Could not find " + names.size() + " traits used " + references + " times: " + String.join(", ", names));
+        }
+    }
+}
@@ -1,9 +1,6 @@
 package org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.alloys;
 
-import net.minecraft.nbt.NBTTagCompound;
-import net.minecraft.nbt.NBTTagList;
-import net.minecraftforge.fml.common.event.FMLInterModComms;
-import slimeknights.tconstruct.TConstruct;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.smeltery.SmelteryRegistration;
 
 public final class Alloy implements IAlloy {
     private AlloyComponent output;
@@ -11,15 +8,12 @@ public final class Alloy implements IAlloy {
 
     @Override
     public void registerTiCAlloy(){
-        NBTTagList tagList = new NBTTagList();
-        tagList.appendTag(this.output.getFluidTag());
-        for (AlloyComponent input : this.inputs) {
-            tagList.appendTag(input.getFluidTag());
-        }
-
-        NBTTagCompound message = new NBTTagCompound();
-        message.setTag("alloy", tagList);
-        FMLInterModComms.sendMessage(TConstruct.modID, "alloy", message);
+        this.registerTiCAlloy(false);
+    }
+
+    @Override
+    public void registerTiCAlloy(boolean direct){
+        SmelteryRegistration.registerAlloy(this.output, this.inputs, direct);
     }
 
     @Override
@@ -0,0 +1,362 @@
+package org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.alloys;
+
+import net.minecraftforge.fluids.FluidRegistry;
+import net.minecraftforge.fluids.FluidStack;
+import org.apache.logging.log4j.Logger;
+import slimeknights.tconstruct.library.TinkerRegistry;
+import slimeknights.tconstruct.library.smeltery.AlloyRecipe;
+
+import java.util.*;
+
+/**
+ * Checks the alloys of every integration against each other and against the alloys Tinkers already knows
+ * before they are registered.
+ * The integrations queue their alloys, and they are all compiled and registered together once the last one's init runs,
+ * after Tinkers registered its own alloys and before it handles IMC messages.
+ * Amounts are reduced by their greatest common divisor, recipes already registered are dropped,
+ * and so are recipes using unknown fluids or forming a cycle, such as A + B = C next to C + D = A,
+ * which makes the smeltery alloy the same fluids back and forth.
+ * Different recipes for the same output fluid from different sources are reported.
+ */
+public final class AlloyCompiler {
+    private static final String TINKERS = "Tinkers' Construct";
+
+    private static final List<Queued> QUEUED = new ArrayList<>();
+    private static final Set<String> REGISTERED = new HashSet<>();
+    private static final List<IAlloy> REGISTERED_ALLOYS = new ArrayList<>();
+    // The source of the first recipe registered for each output fluid
+    private static final Map<String, String> OUTPUT_SOURCES = new HashMap<>();
+
+    private AlloyCompiler() {
+    }
+
+    /**
+     * Queues the alloys of the source, they are registered by {@link #registerQueued(Logger)}.
+     * @param direct whether to call the Tinkers' registry directly instead of sending IMC messages, when possible
+     */
+    public static synchronized void queue(String source, Collection<IAlloy> alloys, boolean direct) {
+        for (IAlloy alloy : alloys) {
+            QUEUED.add(new Queued(source, alloy, direct));
+        }
+    }
+
+    /**
+     * Compiles the alloys queued by every source together and registers those left.
+     */
+    public static synchronized void registerQueued(Logger logger) {
+        if (QUEUED.isEmpty()) {
+            return;
+        }
+        List<Queued> queued = new ArrayList<>(QUEUED);
+        QUEUED.clear();
+        for (Queued alloy : compile(queued, logger)) {
+            alloy.alloy.registerTiCAlloy(alloy.direct);
+            logger.info("Registered tinker's alloy {" + alloy.alloy.getName() + "} of " + alloy.source + ";");
+        }
+    }
+
+    /**
+     * @return the alloys that should be registered, they are considered registered from now on
+     */
+    private static List<Queued> compile(List<Queued> alloys, Logger logger) {
+        Set<String> known = new HashSet<>(REGISTERED);
+        Map<String, String> outputSources = new HashMap<>(OUTPUT_SOURCES);
+        List<FluidStack[]> tinkersAlloys = getTinkersAlloys();
+        for (FluidStack[] recipe : tinkersAlloys) {
+            known.add(getSignature(recipe));
+            outputSources.putIfAbsent(recipe[0].getFluid().getName(), TINKERS);
+        }
+
+        int normalized = 0;
+        int duplicates = 0;
+        int invalid = 0;
+        int conflicts = 0;
+        List<Queued> candidates = new ArrayList<>();
+        for (Queued queued : alloys) {
+            IAlloy alloy = queued.alloy;
+            IAlloy normal = normalize(alloy);
+            if (null == normal) {
+                logger.warn("Skipped alloy {" + alloy.getName() + "} of " + queued.source + ", it has no inputs or an amount that is not positive");
+                invalid++;
+                continue;
+            }
+            if (normal != alloy) {
+                normalized++;
+            }
+            if (!known.add(getSignature(normal))) {
+                duplicates++;
+                continue;
+            }
+            String unknown = getUnknownFluid(normal);
+            if (null != unknown) {
+                logger.warn("Skipped alloy {" + normal.getName() + "} of " + queued.source + ", fluid {" + unknown + "} is not registered");
+                invalid++;
+                continue;
+            }
+            // Identical recipes were dropped above, so a second recipe for the output is a different one
+            String first = outputSources.putIfAbsent(normal.getName(), queued.source);
+            if (null != first && !first.equals(queued.source)) {
+                logger.warn("Alloy {" + normal.getName() + "} of " + queued.source + " conflicts with the recipe of " + first
+                        + " for the same fluid, the smeltery may make either");
+                conflicts++;
+            }
+            candidates.add(new Queued(queued.source, normal, queued.direct));
+        }
+
+        List<IAlloy> candidateAlloys = new ArrayList<>(candidates.size());
+        candidates.forEach(candidate -> candidateAlloys.add(candidate.alloy));
+        boolean[] cyclic = findCycles(candidateAlloys, tinkersAlloys);
+        List<Queued> compiled = new ArrayList<>(candidates.size());
+        int cycles = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            Queued candidate = candidates.get(i);
+            IAlloy alloy = candidate.alloy;
+            if (cyclic[i]) {
+                logger.warn("Skipped alloy {" + alloy.getName() + "} of " + candidate.source + ", it is part of an alloying cycle");
+                cycles++;
+            } else {
+                compiled.add(candidate);
+                REGISTERED.add(getSignature(alloy));
+                REGISTERED_ALLOYS.add(alloy);
+                OUTPUT_SOURCES.putIfAbsent(alloy.getName(), candidate.source);
+            }
+        }
+        logger.info("Compiled " + alloys.size() + " alloys of all integrations: " + compiled.size() + " to register, " + normalized + " normalized, "
+                + duplicates + " duplicates, " + invalid + " invalid, " + cycles + " in cycles, " + conflicts + " conflicting");
+        return compiled;
+    }
+
+    /**
+     * @return the alloy with its amounts divided by their greatest common divisor, the alloy itself if they already are,
+     * or null if it cannot be registered. Inputs listing the same fluid twice are merged.
+     */
+    static IAlloy normalize(IAlloy alloy) {
+        AlloyComponent output = alloy.getOutput();
+        AlloyComponent[] inputs = alloy.getInputs();
+        if (null == output || null == output.getFluid() || 0 >= output.getAmount() || 0 == inputs.length) {
+            return null;
+        }
+
+        Map<String, Integer> merged = new LinkedHashMap<>();
+        for (AlloyComponent input : inputs) {
+            if (null == input || null == input.getFluid() || 0 >= input.getAmount()) {
+                return null;
+            }
+            merged.merge(input.getFluid(), input.getAmount(), Integer::sum);
+        }
+        int gcd = output.getAmount();
+        for (int amount : merged.values()) {
+            gcd = gcd(gcd, amount);
+        }
+        if (1 == gcd && merged.size() == inputs.length) {
+            return alloy;
+        }
+
+        AlloyComponent[] normalInputs = new AlloyComponent[merged.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> input : merged.entrySet()) {
+            normalInputs[i++] = new AlloyComponent(input.getKey(), input.getValue() / gcd);
+        }
+        return new Alloy(new AlloyComponent(output.getFluid(), output.getAmount() / gcd), normalInputs);
+    }
+
+    private static int gcd(int a, int b) {
+        while (0 != b) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    private static String getSignature(IAlloy alloy) {
+        AlloyComponent[] inputs = alloy.getInputs();
+        String[] names = new String[inputs.length];
+        int[] amounts = new int[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            names[i] = inputs[i].getFluid();
+            amounts[i] = inputs[i].getAmount();
+        }
+        return getSignature(alloy.getOutput().getFluid(), alloy.getOutput().getAmount(), names, amounts);
+    }
+
+    private static String getSignature(FluidStack[] recipe) {
+        String[] names = new String[recipe.length - 1];
+        int[] amounts = new int[recipe.length - 1];
+        int gcd = recipe[0].amount;
+        for (int i = 1; i < recipe.length; i++) {
+            names[i - 1] = recipe[i].getFluid().getName();
+            amounts[i - 1] = recipe[i].amount;
+            gcd = gcd(gcd, recipe[i].amount);
+        }
+        gcd = Math.max(1, gcd);
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] /= gcd;
+        }
+        return getSignature(recipe[0].getFluid().getName(), recipe[0].amount / gcd, names, amounts);
+    }
+
+    /**
+     * @return the recipe with its inputs in a fixed order, equal for recipes that only list their inputs differently
+     */
+    private static String getSignature(String output, int outputAmount, String[] inputs, int[] amounts) {
+        String[] parts = new String[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            parts[i] = inputs[i] + "*" + amounts[i];
+        }
+        Arrays.sort(parts);
+        return output + "*" + outputAmount + "=" + String.join("+", parts);
+    }
+
+    private static String getUnknownFluid(IAlloy alloy) {
+        if (!FluidRegistry.isFluidRegistered(alloy.getOutput().getFluid())) {
+            return alloy.getOutput().getFluid();
+        }
+        for (AlloyComponent input : alloy.getInputs()) {
+            if (!FluidRegistry.isFluidRegistered(input.getFluid())) {
+                return input.getFluid();
+            }
+        }
+        return null;
+    }
+
+    private static List<FluidStack[]> getTinkersAlloys() {
+        List<FluidStack[]> recipes = new ArrayList<>();
+        List<AlloyRecipe> alloys = TinkerRegistry.getAlloys();
+        if (null != alloys) {
+            for (AlloyRecipe alloy : alloys) {
+                List<FluidStack> fluids = alloy.getFluids();
+                if (null == alloy.getResult() || null == alloy.getResult().getFluid() || null == fluids) {
+                    continue;
+                }
+                FluidStack[] recipe = new FluidStack[fluids.size() + 1];
+                recipe[0] = alloy.getResult();
+                boolean complete = true;
+                for (int i = 0; i < fluids.size(); i++) {
+                    recipe[i + 1] = fluids.get(i);
+                    complete &= null != recipe[i + 1] && null != recipe[i + 1].getFluid();
+                }
+                if (complete) {
+                    recipes.add(recipe);
+                }
+            }
+        }
+        return recipes;
+    }
+
+    /**
+     * Builds the graph from every input fluid to the output fluid of all known alloys and finds its strongly connected
+     * components with Tarjan's algorithm, in time linear in the number of fluids and recipe inputs.
+     * @return for each candidate, whether its output can be alloyed back into one of its inputs
+     */
+    private static boolean[] findCycles(List<IAlloy> candidates, List<FluidStack[]> tinkersAlloys) {
+        Map<String, Integer> ids = new HashMap<>();
+        List<List<Integer>> edges = new ArrayList<>();
+        List<IAlloy> graphAlloys = new ArrayList<>(REGISTERED_ALLOYS);
+        graphAlloys.addAll(candidates);
+        for (IAlloy alloy : graphAlloys) {
+            int output = getId(ids, edges, alloy.getOutput().getFluid());
+            for (AlloyComponent input : alloy.getInputs()) {
+                edges.get(getId(ids, edges, input.getFluid())).add(output);
+            }
+        }
+        for (FluidStack[] recipe : tinkersAlloys) {
+            int output = getId(ids, edges, recipe[0].getFluid().getName());
+            for (int i = 1; i < recipe.length; i++) {
+                edges.get(getId(ids, edges, recipe[i].getFluid().getName())).add(output);
+            }
+        }
+
+        int[] components = getComponents(edges);
+        boolean[] cyclic = new boolean[candidates.size()];
+        for (int i = 0; i < candidates.size(); i++) {
+            IAlloy alloy = candidates.get(i);
+            int output = components[ids.get(alloy.getOutput().getFluid())];
+            for (AlloyComponent input : alloy.getInputs()) {
+                cyclic[i] |= output == components[ids.get(input.getFluid())];
+            }
+        }
+        return cyclic;
+    }
+
+    private static int getId(Map<String, Integer> ids, List<List<Integer>> edges, String fluid) {
+        Integer id = ids.get(fluid);
+        if (null == id) {
+            id = edges.size();
+            ids.put(fluid, id);
+            edges.add(new ArrayList<>());
+        }
+        return id;
+    }
+
+    /**
+     * Iterative Tarjan, so long alloy chains cannot overflow the stack.
+     * @return the strongly connected component of each node
+     */
+    private static int[] getComponents(List<List<Integer>> edges) {
+        int size = edges.size();
+        int[] index = new int[size];
+        int[] lowLink = new int[size];
+        int[] component = new int[size];
+        int[] nextEdge = new int[size];
+        boolean[] onStack = new boolean[size];
+        Arrays.fill(index, -1);
+        Deque<Integer> stack = new ArrayDeque<>();
+        Deque<Integer> callStack = new ArrayDeque<>();
+        int counter = 0;
+        int components = 0;
+
+        for (int root = 0; root < size; root++) {
+            if (-1 != index[root]) {
+                continue;
+            }
+            callStack.push(root);
+            index[root] = lowLink[root] = counter++;
+            stack.push(root);
+            onStack[root] = true;
+            while (!callStack.isEmpty()) {
+                int node = callStack.peek();
+                List<Integer> targets = edges.get(node);
+                if (nextEdge[node] < targets.size()) {
+                    int target = targets.get(nextEdge[node]++);
+                    if (-1 == index[target]) {
+                        index[target] = lowLink[target] = counter++;
+                        stack.push(target);
+                        onStack[target] = true;
+                        callStack.push(target);
+                    } else if (onStack[target]) {
+                        lowLink[node] = Math.min(lowLink[node], index[target]);
+                    }
+                    continue;
+                }
+                callStack.pop();
+                if (!callStack.isEmpty()) {
+                    int parent = callStack.peek();
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+                }
+                if (lowLink[node] == index[node]) {
+                    int member;
+                    do {
+                        member = stack.pop();
+                        onStack[member] = false;
+                        component[member] = components;
+                    } while (member != node);
+                    components++;
+                }
+            }
+        }
+        return component;
+    }
+
+    private static final class Queued {
+        private final String source;
+        private final IAlloy alloy;
+        private final boolean direct;
+
+        Queued(String source, IAlloy alloy, boolean direct) {
+            this.source = source;
+            this.alloy = alloy;
+            this.direct = direct;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.alloys;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.softc.armoryexpansion.common.integration.aelib.json.JsonAdapterHelper.*;
+
+public class AlloyTypeAdapter extends TypeAdapter<Alloy> {
+    @Override
+    public void write(JsonWriter out, Alloy alloy) throws IOException {
+        if (null == alloy) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        if (null != alloy.getOutput()) {
+            out.name("output");
+            writeComponent(out, alloy.getOutput());
+        }
+        out.name("inputs").beginArray();
+        for (AlloyComponent input : alloy.getInputs()) {
+            writeComponent(out, input);
+        }
+        out.endArray();
+        out.endObject();
+    }
+
+    private static void writeComponent(JsonWriter out, AlloyComponent component) throws IOException {
+        if (null == component) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        writeString(out, "fluid", component.getFluid());
+        writeInt(out, "amount", component.getAmount());
+        out.endObject();
+    }
+
+    @Override
+    public Alloy read(JsonReader in) throws IOException {
+        if (isNull(in)) {
+            return null;
+        }
+        AlloyComponent output = null;
+        AlloyComponent[] inputs = new AlloyComponent[0];
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "output":
+                    output = readComponent(in);
+                    break;
+                case "inputs":
+                    inputs = readComponents(in);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return new Alloy(output, inputs);
+    }
+
+    private static AlloyComponent[] readComponents(JsonReader in) throws IOException {
+        if (isNull(in)) {
+            return new AlloyComponent[0];
+        }
+        List<AlloyComponent> components = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            components.add(readComponent(in));
+        }
+        in.endArray();
+        return components.toArray(new AlloyComponent[0]);
+    }
+
+    private static AlloyComponent readComponent(JsonReader in) throws IOException {
+        if (isNull(in)) {
+            return null;
+        }
+        String fluid = null;
+        int amount = 0;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "fluid":
+                    fluid = nextString(in);
+                    break;
+                case "amount":
+                    amount = nextInt(in, amount);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return new AlloyComponent(fluid, amount);
+    }
+}
@@ -3,6 +3,11 @@ package org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstr
 public interface IAlloy {
     void registerTiCAlloy();
 
+    /**
+     * @param direct whether to call the Tinkers' registry directly instead of sending an IMC message, when possible
+     */
+    void registerTiCAlloy(boolean direct);
+
     AlloyComponent getOutput();
 
     AlloyComponent[] getInputs();
@@ -1,8 +1,8 @@
 package org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.material;
 
-import org.softc.armoryexpansion.common.integration.aelib.config.MaterialConfigOptions;
+import org.softc.armoryexpansion.common.integration.aelib.config.MaterialConfigFlags;
 import org.softc.armoryexpansion.common.integration.aelib.plugins.general.material.BasicMaterial;
-import slimeknights.tconstruct.library.TinkerRegistry;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.registry.MaterialRegistryIndex;
 import slimeknights.tconstruct.library.materials.*;
 
 public class RangedMaterial extends BasicMaterial implements IRangedMaterial {
@@ -53,47 +53,47 @@ public class RangedMaterial extends BasicMaterial implements IRangedMaterial {
     }
 
     @Override
-    public boolean registerTinkersMaterialStats(MaterialConfigOptions properties) {
-        if (properties.materialEnabled()) {
-            Material material = TinkerRegistry.getMaterial(this.getIdentifier());
+    public boolean registerTinkersMaterialStats(int flags) {
+        if (MaterialConfigFlags.has(flags, MaterialConfigFlags.MATERIAL)) {
+            Material material = MaterialRegistryIndex.getMaterial(this.getIdentifier());
 //            if (!"unknown".equals(material.getIdentifier())){
-                this.registerRangedStats(material, properties);
+                this.registerRangedStats(material, flags);
                 return true;
 //            }
         }
         return false;
     }
 
-    protected void registerRangedStats(Material material, MaterialConfigOptions properties){
+    protected void registerRangedStats(Material material, int flags){
         if(this.isRangedMaterial()){
-            this.registerBowStats(material, properties);
-            this.registerBowStringStats(material, properties);
-            this.registerFletchingStats(material, properties);
-            this.registerProjectileStats(material, properties);
+            this.registerBowStats(material, flags);
+            this.registerBowStringStats(material, flags);
+            this.registerFletchingStats(material, flags);
+            this.registerProjectileStats(material, flags);
         }
     }
 
-    protected void registerBowStats(Material material, MaterialConfigOptions properties){
-        if(null == material.getStats(MaterialTypes.BOW) && null != this.bowMaterialStats && properties.isBowEnabled()){
-            TinkerRegistry.addMaterialStats(material, this.bowMaterialStats);
+    protected void registerBowStats(Material material, int flags){
+        if(!MaterialRegistryIndex.hasStats(material, MaterialTypes.BOW) && null != this.bowMaterialStats && MaterialConfigFlags.has(flags, MaterialConfigFlags.BOW)){
+            MaterialRegistryIndex.addMaterialStats(material, this.bowMaterialStats);
         }
     }
 
-    protected void registerBowStringStats(Material material, MaterialConfigOptions properties){
-        if(null == material.getStats(MaterialTypes.BOWSTRING) && null != this.bowStringMaterialStats && properties.isBowStringEnabled()){
-            TinkerRegistry.addMaterialStats(material, this.bowStringMaterialStats);
+    protected void registerBowStringStats(Material material, int flags){
+        if(!MaterialRegistryIndex.hasStats(material, MaterialTypes.BOWSTRING) && null != this.bowStringMaterialStats && MaterialConfigFlags.has(flags, MaterialConfigFlags.BOWSTRING)){
+            MaterialRegistryIndex.addMaterialStats(material, this.bowStringMaterialStats);
         }
     }
 
-    protected void registerFletchingStats(Material material, MaterialConfigOptions properties){
-        if(null == material.getStats(MaterialTypes.FLETCHING) && null != this.fletchingMaterialStats && properties.isFletchingEnabled()){
-            TinkerRegistry.addMaterialStats(material, this.fletchingMaterialStats);
+    protected void registerFletchingStats(Material material, int flags){
+        if(!MaterialRegistryIndex.hasStats(material, MaterialTypes.FLETCHING) && null != this.fletchingMaterialStats && MaterialConfigFlags.has(flags, MaterialConfigFlags.FLETCHING)){
+            MaterialRegistryIndex.addMaterialStats(material, this.fletchingMaterialStats);
         }
     }
 
-    protected void registerProjectileStats(Material material, MaterialConfigOptions properties){
-        if(null == material.getStats(MaterialTypes.PROJECTILE) && null != this.projectileMaterialStats && properties.isProjectileEnabled()){
-            TinkerRegistry.addMaterialStats(material, this.projectileMaterialStats);
+    protected void registerProjectileStats(Material material, int flags){
+        if(!MaterialRegistryIndex.hasStats(material, MaterialTypes.PROJECTILE) && null != this.projectileMaterialStats && MaterialConfigFlags.has(flags, MaterialConfigFlags.PROJECTILE)){
+            MaterialRegistryIndex.addMaterialStats(material, this.projectileMaterialStats);
         }
     }
 }
@@ -1,8 +1,8 @@
 package org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.material;
 
-import org.softc.armoryexpansion.common.integration.aelib.config.MaterialConfigOptions;
+import org.softc.armoryexpansion.common.integration.aelib.config.MaterialConfigFlags;
 import org.softc.armoryexpansion.common.integration.aelib.plugins.general.material.BasicMaterial;
-import slimeknights.tconstruct.library.TinkerRegistry;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.registry.MaterialRegistryIndex;
 import slimeknights.tconstruct.library.materials.ExtraMaterialStats;
 import slimeknights.tconstruct.library.materials.HandleMaterialStats;
 import slimeknights.tconstruct.library.materials.HeadMaterialStats;
@@ -46,40 +46,40 @@ public class ToolMaterial extends BasicMaterial implements IToolMaterial {
     }
 
     @Override
-    public boolean registerTinkersMaterialStats(MaterialConfigOptions properties){
-        if (properties.materialEnabled() && properties.isToolEnabled()) {
-            slimeknights.tconstruct.library.materials.Material material = TinkerRegistry.getMaterial(this.getIdentifier());
+    public boolean registerTinkersMaterialStats(int flags){
+        if (MaterialConfigFlags.has(flags, MaterialConfigFlags.MATERIAL) && MaterialConfigFlags.has(flags, MaterialConfigFlags.TOOL)) {
+            slimeknights.tconstruct.library.materials.Material material = MaterialRegistryIndex.getMaterial(this.getIdentifier());
 //            if (!"unknown".equals(material.getIdentifier())) {
-                this.registerToolStats(material, properties);
+                this.registerToolStats(material, flags);
                 return true;
 //            }
         }
         return false;
     }
 
-    void registerToolStats(slimeknights.tconstruct.library.materials.Material material, MaterialConfigOptions properties){
+    void registerToolStats(slimeknights.tconstruct.library.materials.Material material, int flags){
         if(this.isToolMaterial()){
-            this.registerHeadStats(material, properties);
-            this.registerHandleStats(material, properties);
-            this.registerExtraStats(material, properties);
+            this.registerHeadStats(material, flags);
+            this.registerHandleStats(material, flags);
+            this.registerExtraStats(material, flags);
         }
     }
 
-    private void registerHeadStats(slimeknights.tconstruct.library.materials.Material material, MaterialConfigOptions properties){
-        if(null == material.getStats(MaterialTypes.HEAD) && null != this.headMaterialStats && properties.isHeadEnabled()){
-            TinkerRegistry.addMaterialStats(material, this.headMaterialStats);
+    private void registerHeadStats(slimeknights.tconstruct.library.materials.Material material, int flags){
+        if(!MaterialRegistryIndex.hasStats(material, MaterialTypes.HEAD) && null != this.headMaterialStats && MaterialConfigFlags.has(flags, MaterialConfigFlags.HEAD)){
+            MaterialRegistryIndex.addMaterialStats(material, this.headMaterialStats);
         }
     }
 
-    private void registerHandleStats(slimeknights.tconstruct.library.materials.Material material, MaterialConfigOptions properties){
-        if(null == material.getStats(MaterialTypes.HANDLE) && null != this.handleMaterialStats && properties.isHandleEnabled()){
-            TinkerRegistry.addMaterialStats(material, this.handleMaterialStats);
+    private void registerHandleStats(slimeknights.tconstruct.library.materials.Material material, int flags){
+        if(!MaterialRegistryIndex.hasStats(material, MaterialTypes.HANDLE) && null != this.handleMaterialStats && MaterialConfigFlags.has(flags, MaterialConfigFlags.HANDLE)){
+            MaterialRegistryIndex.addMaterialStats(material, this.handleMaterialStats);
         }
     }
 
-    private void registerExtraStats(slimeknights.tconstruct.library.materials.Material material, MaterialConfigOptions properties){
-        if(null == material.getStats(MaterialTypes.EXTRA) && null != this.extraMaterialStats && properties.isExtraEnabled()){
-            TinkerRegistry.addMaterialStats(material, this.extraMaterialStats);
+    private void registerExtraStats(slimeknights.tconstruct.library.materials.Material material, int flags){
+        if(!MaterialRegistryIndex.hasStats(material, MaterialTypes.EXTRA) && null != this.extraMaterialStats && MaterialConfigFlags.has(flags, MaterialConfigFlags.EXTRA)){
+            MaterialRegistryIndex.addMaterialStats(material, this.extraMaterialStats);
         }
     }
 }
@@ -0,0 +1,152 @@
+package org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.registry;
+
+import c4.conarm.lib.materials.ArmorMaterialType;
+import slimeknights.tconstruct.library.TinkerRegistry;
+import slimeknights.tconstruct.library.materials.IMaterialStats;
+import slimeknights.tconstruct.library.materials.Material;
+import slimeknights.tconstruct.library.materials.MaterialTypes;
+
+import java.util.*;
+
+/**
+ * Snapshot of the Tinkers' material registry shared by all integrations, mapping every identifier to a dense id
+ * and a bitmask of the stat types it has, so registration checks do not go back to the registry each time.
+ * Stats and materials added through this class update the snapshot, anything else is picked up by {@link #invalidate()}.
+ */
+public final class MaterialRegistryIndex {
+    private static final String[] STAT_TYPES = {
+            MaterialTypes.HEAD, MaterialTypes.HANDLE, MaterialTypes.EXTRA,
+            MaterialTypes.BOW, MaterialTypes.BOWSTRING, MaterialTypes.SHAFT, MaterialTypes.FLETCHING, MaterialTypes.PROJECTILE,
+            ArmorMaterialType.CORE, ArmorMaterialType.PLATES, ArmorMaterialType.TRIM
+    };
+
+    private static final Set<String> INTEGRATED = new HashSet<>();
+
+    private static Snapshot snapshot;
+
+    private MaterialRegistryIndex() {
+    }
+
+    /**
+     * @return the bit used for the stat type in {@link #getStatMask(String)}, or 0 for types that are not indexed
+     */
+    public static int getStatBit(String statType) {
+        for (int i = 0; i < STAT_TYPES.length; i++) {
+            if (STAT_TYPES[i].equals(statType)) {
+                return 1 << i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return the registered material, or {@link Material#UNKNOWN} like {@link TinkerRegistry#getMaterial(String)}
+     */
+    public static synchronized Material getMaterial(String identifier) {
+        Integer id = getSnapshot().ids.get(identifier);
+        if (null != id) {
+            return snapshot.materials.get(id);
+        }
+        // Registered by another mod since the snapshot was taken
+        Material material = TinkerRegistry.getMaterial(identifier);
+        if (isKnown(material)) {
+            snapshot.add(material);
+        }
+        return material;
+    }
+
+    public static boolean isRegistered(String identifier) {
+        return isKnown(getMaterial(identifier));
+    }
+
+    public static synchronized int getStatMask(String identifier) {
+        Integer id = getSnapshot().ids.get(identifier);
+        return null == id ? 0 : snapshot.statMasks[id];
+    }
+
+    public static boolean hasStats(Material material, String statType) {
+        int bit = getStatBit(statType);
+        if (0 == bit || !isKnown(material)) {
+            return material.hasStats(statType);
+        }
+        return 0 != (getStatMask(material.identifier) & bit);
+    }
+
+    public static synchronized List<Material> getAllMaterials() {
+        return new ArrayList<>(getSnapshot().materials);
+    }
+
+    public static synchronized void addMaterial(Material material) {
+        TinkerRegistry.addMaterial(material);
+        if (null != snapshot && !snapshot.ids.containsKey(material.identifier)) {
+            snapshot.add(material);
+        }
+    }
+
+    public static synchronized void addMaterialStats(Material material, IMaterialStats stats) {
+        TinkerRegistry.addMaterialStats(material, stats);
+        if (null != snapshot) {
+            Integer id = snapshot.ids.get(material.identifier);
+            if (null != id) {
+                snapshot.statMasks[id] |= getStatBit(stats.getIdentifier());
+            }
+        }
+    }
+
+    /**
+     * Integrates the material with Tinkers unless it was already integrated through this class,
+     * since every integration call adds another {@code MaterialIntegration}.
+     */
+    public static synchronized void integrate(Material material) {
+        if (INTEGRATED.add(material.identifier)) {
+            TinkerRegistry.integrate(material);
+        }
+    }
+
+    /**
+     * Drops the snapshot, the next lookup takes a new one. Called whenever other mods may have changed the registry.
+     */
+    public static synchronized void invalidate() {
+        snapshot = null;
+    }
+
+    private static boolean isKnown(Material material) {
+        return null != material && Material.UNKNOWN != material && !"unknown".equals(material.identifier);
+    }
+
+    private static Snapshot getSnapshot() {
+        if (null == snapshot) {
+            snapshot = new Snapshot(TinkerRegistry.getAllMaterials());
+        }
+        return snapshot;
+    }
+
+    private static class Snapshot {
+        private final Map<String, Integer> ids;
+        private final List<Material> materials;
+        private int[] statMasks;
+
+        Snapshot(Collection<Material> registered) {
+            this.ids = new HashMap<>(registered.size() * 2);
+            this.materials = new ArrayList<>(registered.size());
+            this.statMasks = new int[registered.size()];
+            registered.forEach(this::add);
+        }
+
+        void add(Material material) {
+            int id = this.materials.size();
+            this.ids.put(material.identifier, id);
+            this.materials.add(material);
+            if (id == this.statMasks.length) {
+                this.statMasks = Arrays.copyOf(this.statMasks, Math.max(16, id * 2));
+            }
+            int mask = 0;
+            for (int i = 0; i < STAT_TYPES.length; i++) {
+                if (material.hasStats(STAT_TYPES[i])) {
+                    mask |= 1 << i;
+                }
+            }
+            this.statMasks[id] = mask;
+        }
+    }
+}
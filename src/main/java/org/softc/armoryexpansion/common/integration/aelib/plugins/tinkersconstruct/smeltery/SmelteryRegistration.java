@@ -0,0 +1,88 @@
+package org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.smeltery;
+
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraftforge.fluids.Fluid;
+import net.minecraftforge.fluids.FluidRegistry;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fml.common.Loader;
+import net.minecraftforge.fml.common.event.FMLInterModComms;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.alloys.IAlloyComponent;
+import slimeknights.tconstruct.TConstruct;
+import slimeknights.tconstruct.library.MaterialIntegration;
+import slimeknights.tconstruct.library.TinkerRegistry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registers smeltery integrations and alloys with Tinkers' Construct, either by calling its registry directly
+ * or by sending the IMC messages Tinkers decodes into the same calls.
+ * The direct path falls back to IMC when Tinkers is not loaded or a fluid is not registered yet,
+ * since Tinkers resolves IMC fluids later.
+ * IMC is the default. The direct path is experimental: it integrates while items are registered rather than
+ * when Tinkers handles its IMC messages, and it is not known to produce the same melting, casting and toolforge recipes.
+ */
+public final class SmelteryRegistration {
+    private static final AtomicInteger DIRECT = new AtomicInteger();
+    private static final AtomicInteger MESSAGES = new AtomicInteger();
+
+    private SmelteryRegistration() {
+    }
+
+    public static void integrateSmeltery(String fluidName, String ore, boolean direct) {
+        if (direct && isTinkersLoaded()) {
+            Fluid fluid = FluidRegistry.getFluid(fluidName);
+            if (null != fluid) {
+                TinkerRegistry.integrate(new MaterialIntegration(null, fluid, ore).toolforge()).preInit();
+                DIRECT.incrementAndGet();
+                return;
+            }
+        }
+
+        NBTTagCompound tag = new NBTTagCompound();
+        tag.setString("fluid", fluidName);
+        tag.setString("ore", ore);
+        tag.setBoolean("toolforge", true);
+        FMLInterModComms.sendMessage(TConstruct.modID, "integrateSmeltery", tag);
+        MESSAGES.incrementAndGet();
+    }
+
+    public static void registerAlloy(IAlloyComponent output, IAlloyComponent[] inputs, boolean direct) {
+        if (direct && isTinkersLoaded()) {
+            FluidStack result = getFluidStack(output);
+            FluidStack[] stacks = new FluidStack[inputs.length];
+            boolean resolved = null != result;
+            for (int i = 0; resolved && i < inputs.length; i++) {
+                stacks[i] = getFluidStack(inputs[i]);
+                resolved = null != stacks[i];
+            }
+            if (resolved) {
+                TinkerRegistry.registerAlloy(result, stacks);
+                DIRECT.incrementAndGet();
+                return;
+            }
+        }
+
+        NBTTagList tagList = new NBTTagList();
+        tagList.appendTag(output.getFluidTag());
+        for (IAlloyComponent input : inputs) {
+            tagList.appendTag(input.getFluidTag());
+        }
+        NBTTagCompound message = new NBTTagCompound();
+        message.setTag("alloy", tagList);
+        FMLInterModComms.sendMessage(TConstruct.modID, "alloy", message);
+        MESSAGES.incrementAndGet();
+    }
+
+    public static String getSummary() {
+        return "Smeltery registration: " + DIRECT.get() + " registered directly (IMC messages avoided), " + MESSAGES.get() + " sent through IMC";
+    }
+
+    private static boolean isTinkersLoaded() {
+        return Loader.isModLoaded(TConstruct.modID);
+    }
+
+    private static FluidStack getFluidStack(IAlloyComponent component) {
+        return FluidRegistry.getFluidStack(component.getFluid(), component.getAmount());
+    }
+}
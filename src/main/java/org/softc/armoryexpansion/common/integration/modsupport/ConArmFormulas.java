@@ -0,0 +1,142 @@
+package org.softc.armoryexpansion.common.integration.modsupport;
+
+import c4.conarm.lib.materials.ArmorMaterialType;
+import c4.conarm.lib.materials.CoreMaterialStats;
+import c4.conarm.lib.materials.PlatesMaterialStats;
+import c4.conarm.lib.materials.TrimMaterialStats;
+import com.google.gson.JsonParseException;
+import org.apache.logging.log4j.Logger;
+import org.softc.armoryexpansion.common.integration.aelib.formula.Formula;
+import org.softc.armoryexpansion.common.integration.aelib.formula.FormulaCompiler;
+import org.softc.armoryexpansion.common.integration.aelib.json.AelibGson;
+import slimeknights.tconstruct.library.materials.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Formulas used to derive armor stats from tool stats, read from conarm-formulas.json so packs can rebalance them.
+ * The defaults are the conversion Armory Expansion always used.
+ */
+public class ConArmFormulas {
+    private static final float STAT_MULT = 1.25f;
+    private static final int DURA_MIN = 1;
+    private static final int DURA_MAX = 120;
+    private static final int DEF_MIN = 0;
+    private static final int DEF_MAX = 50;
+    private static final int TOUGH_MIN = DEF_MIN / 10;
+    private static final int TOUGH_MAX = DEF_MAX / 10;
+
+    private static final String DEFAULT_BASELINE = "iron";
+    private static final String DEFAULT_DURABILITY =
+            "int(clamp(base.durability * head.durability / baseHead.durability / mult, " + DURA_MIN + ", " + DURA_MAX + "))";
+    private static final String DEFAULT_DEFENSE =
+            "clamp(1.5 * base.defense * head.attack / baseHead.attack / mult, " + DEF_MIN + ", " + DEF_MAX + ")";
+    private static final String DEFAULT_TOUGHNESS =
+            "clamp(3 * base.toughness * handle.durability / baseHandle.durability / mult, " + TOUGH_MIN + ", " + TOUGH_MAX + ")";
+    private static final String DEFAULT_EXTRA_DURABILITY =
+            "2 * base.extraDurability * extra.extraDurability / baseExtra.extraDurability / mult";
+
+    static final int HEAD_DURABILITY = 0;
+    static final int HEAD_ATTACK = 1;
+    static final int HANDLE_DURABILITY = 2;
+    static final int EXTRA_DURABILITY = 3;
+    static final int COLUMNS = 4;
+
+    static final int DURABILITY = 0;
+    static final int DEFENSE = 1;
+    static final int TOUGHNESS = 2;
+    static final int EXTRA = 3;
+    static final int FORMULAS = 4;
+
+    // Read and written by ConArmFormulasTypeAdapter
+    String baseline = DEFAULT_BASELINE;
+    float mult = STAT_MULT;
+    String durability = DEFAULT_DURABILITY;
+    String defense = DEFAULT_DEFENSE;
+    String toughness = DEFAULT_TOUGHNESS;
+    String extraDurability = DEFAULT_EXTRA_DURABILITY;
+
+    public String getBaseline() {
+        return null == this.baseline ? DEFAULT_BASELINE : this.baseline;
+    }
+
+    /**
+     * @return the formulas, or the defaults if the file does not exist or cannot be read
+     */
+    static ConArmFormulas read(File file, Logger logger) {
+        if (file.isFile()) {
+            try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+                ConArmFormulas formulas = AelibGson.getGson().fromJson(reader, ConArmFormulas.class);
+                if (null != formulas) {
+                    return formulas;
+                }
+            } catch (IOException | JsonParseException e) {
+                e.printStackTrace();
+                logger.error("Could not read " + file.getPath() + ", using the default formulas");
+            }
+        }
+        return new ConArmFormulas();
+    }
+
+    static boolean hasConversionStats(Material material) {
+        return null != material.getStats(ArmorMaterialType.CORE)
+                && null != material.getStats(ArmorMaterialType.PLATES)
+                && null != material.getStats(ArmorMaterialType.TRIM)
+                && null != material.getStats(MaterialTypes.HEAD)
+                && null != material.getStats(MaterialTypes.HANDLE)
+                && null != material.getStats(MaterialTypes.EXTRA);
+    }
+
+    /**
+     * Compiles the formulas against the baseline material, whose stats become constants.
+     * A formula that does not compile is replaced by its default.
+     * @return the formulas indexed by {@link #DURABILITY}, {@link #DEFENSE}, {@link #TOUGHNESS} and {@link #EXTRA}
+     */
+    Formula[] compile(Material baseline, Logger logger) {
+        CoreMaterialStats core = baseline.getStats(ArmorMaterialType.CORE);
+        PlatesMaterialStats plates = baseline.getStats(ArmorMaterialType.PLATES);
+        TrimMaterialStats trim = baseline.getStats(ArmorMaterialType.TRIM);
+        HeadMaterialStats head = baseline.getStats(MaterialTypes.HEAD);
+        HandleMaterialStats handle = baseline.getStats(MaterialTypes.HANDLE);
+        ExtraMaterialStats extra = baseline.getStats(MaterialTypes.EXTRA);
+
+        Map<String, Float> constants = new HashMap<>();
+        constants.put("mult", this.mult);
+        constants.put("base.durability", core.durability);
+        constants.put("base.defense", core.defense);
+        constants.put("base.toughness", plates.toughness);
+        constants.put("base.extraDurability", trim.extraDurability);
+        constants.put("baseHead.durability", (float) head.durability);
+        constants.put("baseHead.attack", head.attack);
+        constants.put("baseHandle.durability", (float) handle.durability);
+        constants.put("baseExtra.extraDurability", (float) extra.extraDurability);
+
+        Map<String, Integer> columns = new HashMap<>();
+        columns.put("head.durability", HEAD_DURABILITY);
+        columns.put("head.attack", HEAD_ATTACK);
+        columns.put("handle.durability", HANDLE_DURABILITY);
+        columns.put("extra.extraDurability", EXTRA_DURABILITY);
+
+        FormulaCompiler compiler = new FormulaCompiler(columns, constants);
+        Formula[] formulas = new Formula[FORMULAS];
+        formulas[DURABILITY] = compile(compiler, this.durability, DEFAULT_DURABILITY, logger);
+        formulas[DEFENSE] = compile(compiler, this.defense, DEFAULT_DEFENSE, logger);
+        formulas[TOUGHNESS] = compile(compiler, this.toughness, DEFAULT_TOUGHNESS, logger);
+        formulas[EXTRA] = compile(compiler, this.extraDurability, DEFAULT_EXTRA_DURABILITY, logger);
+        return formulas;
+    }
+
+    private static Formula compile(FormulaCompiler compiler, String formula, String defaultFormula, Logger logger) {
+        if (null != formula) {
+            try {
+                return compiler.compile(formula);
+            } catch (IllegalArgumentException e) {
+                logger.error(e.getMessage() + ", using the default formula");
+            }
+        }
+        return compiler.compile(defaultFormula);
+    }
+}
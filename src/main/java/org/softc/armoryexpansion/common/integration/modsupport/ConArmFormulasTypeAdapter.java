@@ -0,0 +1,64 @@
+package org.softc.armoryexpansion.common.integration.modsupport;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+import static org.softc.armoryexpansion.common.integration.aelib.json.JsonAdapterHelper.*;
+
+public class ConArmFormulasTypeAdapter extends TypeAdapter<ConArmFormulas> {
+    @Override
+    public void write(JsonWriter out, ConArmFormulas formulas) throws IOException {
+        if (null == formulas) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        writeString(out, "baseline", formulas.baseline);
+        writeFloat(out, "mult", formulas.mult);
+        writeString(out, "durability", formulas.durability);
+        writeString(out, "defense", formulas.defense);
+        writeString(out, "toughness", formulas.toughness);
+        writeString(out, "extraDurability", formulas.extraDurability);
+        out.endObject();
+    }
+
+    @Override
+    public ConArmFormulas read(JsonReader in) throws IOException {
+        if (isNull(in)) {
+            return null;
+        }
+        // Missing values keep their defaults
+        ConArmFormulas formulas = new ConArmFormulas();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "baseline":
+                    formulas.baseline = nextString(in);
+                    break;
+                case "mult":
+                    formulas.mult = nextFloat(in, formulas.mult);
+                    break;
+                case "durability":
+                    formulas.durability = nextString(in);
+                    break;
+                case "defense":
+                    formulas.defense = nextString(in);
+                    break;
+                case "toughness":
+                    formulas.toughness = nextString(in);
+                    break;
+                case "extraDurability":
+                    formulas.extraDurability = nextString(in);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return formulas;
+    }
+}
@@ -5,34 +5,39 @@ import c4.conarm.lib.materials.ArmorMaterialType;
 import c4.conarm.lib.materials.CoreMaterialStats;
 import c4.conarm.lib.materials.PlatesMaterialStats;
 import c4.conarm.lib.materials.TrimMaterialStats;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import net.minecraft.item.Item;
-import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.event.RegistryEvent;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
-import net.minecraftforge.fml.common.eventhandler.EventPriority;
-import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import org.apache.logging.log4j.LogManager;
 import org.softc.armoryexpansion.ArmoryExpansion;
 import org.softc.armoryexpansion.client.integration.aelib.plugins.tinkers_construct.material.MaterialRenderType;
+import org.softc.armoryexpansion.common.integration.aelib.formula.Formula;
+import org.softc.armoryexpansion.common.integration.aelib.integration.IntegrationDispatcher;
+import org.softc.armoryexpansion.common.integration.aelib.integration.IntegrationScheduler;
 import org.softc.armoryexpansion.common.integration.aelib.integration.JsonIntegration;
+import org.softc.armoryexpansion.common.integration.aelib.integration.MaterialBus;
+import org.softc.armoryexpansion.common.integration.aelib.json.AelibGson;
 import org.softc.armoryexpansion.common.integration.aelib.plugins.constructsarmory.material.ArmorMaterial;
 import org.softc.armoryexpansion.common.integration.aelib.plugins.constructsarmory.material.IArmorMaterial;
 import org.softc.armoryexpansion.common.integration.aelib.plugins.general.material.IBasicMaterial;
-import org.softc.armoryexpansion.common.util.Math;
-import slimeknights.tconstruct.library.TinkerRegistry;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.registry.MaterialRegistryIndex;
+import org.softc.armoryexpansion.common.util.ConfigFileSuffixEnum;
 import slimeknights.tconstruct.library.materials.*;
 import slimeknights.tconstruct.tools.TinkerMaterials;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.Objects;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Mod(
         modid = ConArmIntegration.MODID,
@@ -40,7 +45,6 @@ import java.util.Objects;
         version = ArmoryExpansion.VERSION,
         dependencies = ConArmIntegration.DEPENDENCIES
 )
-@Mod.EventBusSubscriber
 public class ConArmIntegration extends JsonIntegration {
     static final String MODID = ArmoryExpansion.MODID + "-" + ConstructsArmory.MODID;
     static final String NAME = ArmoryExpansion.NAME + " - " + ConstructsArmory.MODNAME;
@@ -48,34 +52,66 @@ public class ConArmIntegration extends JsonIntegration {
                     "required-after:" + ArmoryExpansion.MODID + "; " +
                     "after:*";
 
-    private static final float STAT_MULT = 1.25f;
-    private static final int DURA_MIN = 1;
-    private static final int DURA_MAX = 120;
-    private static final int DEF_MIN = 0;
-    private static final int DEF_MAX = 50;
-    private static final int TOUGH_MIN = DEF_MIN / 10;
-    private static final int TOUGH_MAX = DEF_MAX / 10;
+    private static final int CORE = MaterialRegistryIndex.getStatBit(ArmorMaterialType.CORE);
+    private static final int PLATES = MaterialRegistryIndex.getStatBit(ArmorMaterialType.PLATES);
+    private static final int TRIM = MaterialRegistryIndex.getStatBit(ArmorMaterialType.TRIM);
+    private static final int HEAD = MaterialRegistryIndex.getStatBit(MaterialTypes.HEAD);
+    private static final int HANDLE = MaterialRegistryIndex.getStatBit(MaterialTypes.HANDLE);
+    private static final int EXTRA = MaterialRegistryIndex.getStatBit(MaterialTypes.EXTRA);
 
-    private Collection<ArmorMaterial> jsonMaterials = new LinkedList<>();
+    private static final String MATERIALS_FILE = ConfigFileSuffixEnum.MATERIALS_SUFFIX.getSuffix() + ".json";
+
+    private Map<String, IBasicMaterial> otherMaterials = new ConcurrentHashMap<>();
+    // Every registry material already considered for conversion
+    private Set<String> registryIdentifiers = new HashSet<>();
+    private boolean integrationDataLoaded;
+    private Formula[] formulas;
 
     public ConArmIntegration() {
         super(ConstructsArmory.MODID, ArmoryExpansion.MODID, ConstructsArmory.MODID);
-        MinecraftForge.EVENT_BUS.register(this);
     }
 
     @Mod.EventHandler
     public void preInit(FMLPreInitializationEvent event) {
-        this.modId = ConstructsArmory.MODID;
+        if (!IntegrationDispatcher.begin(this, IntegrationDispatcher.Phase.PRE_INIT)) {
+            return;
+        }
+        IntegrationScheduler.await(this, event.getModConfigurationDirectory());
         this.logger = event.getModLog();
-        this.configDir = event.getModConfigurationDirectory().getPath();
         if (ArmoryExpansion.isIntegrationEnabled(this.modId)){
-            this.loadMaterialsFromOtherIntegrations(event);
             this.loadIntegrationData(this.configDir);
-            this.integrationConfigHelper.syncConfig(this.materials);
+            this.syncConfig(this.materials);
             this.saveIntegrationData(this.configDir);
             this.registerMaterialStats();
+            this.integrationDataLoaded = true;
+        }
+        ArmoryExpansion.requestConfigSave();
+    }
+
+    /**
+     * Only gathers the materials of the other integrations, everything else depends on the Tinkers' registry
+     * and is left to preInit.
+     */
+    @Override
+    public void prepare(File configDir) {
+        if (null == this.logger) {
+            this.logger = LogManager.getLogger(MODID);
+        }
+        this.configDir = configDir.getPath();
+        if (ArmoryExpansion.isIntegrationEnabled(this.modId)){
+            this.loadMaterialsFromOtherIntegrations(configDir);
         }
-        ArmoryExpansion.getConfig().save();
+    }
+
+    @Override
+    public Collection<String> getProducedData() {
+        // Its own materials file is never read back by another integration
+        return Collections.emptySet();
+    }
+
+    @Override
+    public Collection<String> getConsumedData() {
+        return Collections.singleton(IntegrationScheduler.MATERIALS);
     }
 
     @Mod.EventHandler
@@ -83,126 +119,260 @@ public class ConArmIntegration extends JsonIntegration {
         super.init(event);
     }
 
-    @SubscribeEvent(priority = EventPriority.LOWEST)
+    @Override
     public void registerItems(RegistryEvent<Item> event){
         if(ArmoryExpansion.isIntegrationEnabled(this.modId)){
-            this.loadIntegrationData(this.configDir);
-            this.integrationConfigHelper.syncConfig(this.materials);
-            this.saveIntegrationData(this.configDir);
-            this.registerMaterialStats();
+            if (this.integrationDataLoaded) {
+                this.deriveNewRegistryMaterials();
+            } else {
+                this.loadIntegrationData(this.configDir);
+                this.syncConfig(this.materials);
+                this.saveIntegrationData(this.configDir);
+                this.registerMaterialStats();
+                this.integrationDataLoaded = true;
+            }
         }
-        ArmoryExpansion.getConfig().save();
+        ArmoryExpansion.requestConfigSave();
     }
 
-    private void loadMaterialsFromOtherIntegrations(FMLPreInitializationEvent event){
-        this.loadJsonMaterialsFromOtherIntegrations(event);
+    /**
+     * Reuses the data loaded during preInit and only converts the registry materials that were added since.
+     */
+    private void deriveNewRegistryMaterials(){
+        Set<String> loaded = new HashSet<>(this.materials.keySet());
+        MaterialRegistryIndex.invalidate();
+        List<Material> newRegistryMaterials = MaterialRegistryIndex.getAllMaterials().stream()
+                .filter(material -> !this.registryIdentifiers.contains(material.identifier))
+                .collect(Collectors.toList());
+        this.deriveMaterials(newRegistryMaterials);
+
+        Map<String, IBasicMaterial> added = new HashMap<>();
+        this.materials.forEach((identifier, material) -> {
+            if (!loaded.contains(identifier)) {
+                added.put(identifier, material);
+            }
+        });
+        this.syncConfig(added);
+        this.saveIntegrationData(this.configDir);
+        added.values().forEach(this::registerMaterialStats);
+        this.logger.info("Reused " + loaded.size() + " loaded materials, derived " + added.size() + " new registry materials");
     }
 
-    private void loadJsonMaterialsFromOtherIntegrations(FMLPreInitializationEvent event){
-        File jsonDir = new File(event.getModConfigurationDirectory().getPath() + "/" + ArmoryExpansion.MODID + "/");
+    @Override
+    protected boolean isSnapshotEnabled() {
+        // Materials are derived from the Tinkers' registry, which the input hash does not cover
+        return false;
+    }
+
+    /**
+     * Takes the materials the other integrations published on the {@link MaterialBus}, and reads the materials files
+     * of anything else, such as other tools or integrations that failed to publish, from disk.
+     */
+    private void loadMaterialsFromOtherIntegrations(File configDir){
+        long start = System.nanoTime();
+        Set<String> sources = new HashSet<>(MaterialBus.getSources());
+        sources.remove(this.modId);
+        sources.forEach(source -> this.otherMaterials.putAll(MaterialBus.getMaterials(source)));
+        this.logger.info("Took " + this.otherMaterials.size() + " materials from " + sources.size()
+                + " integrations on the material bus in " + toMillis(System.nanoTime() - start) + " ms");
+
+        File jsonDir = new File(configDir.getPath() + "/" + ArmoryExpansion.MODID + "/");
         //noinspection ResultOfMethodCallIgnored
         jsonDir.mkdirs();
-        for (File json : Objects.requireNonNull(
-                jsonDir.listFiles((dir, name) -> name.contains("-materials.json") && !name.contains(ConstructsArmory.MODID)))){
-            this.loadMaterialsFromOtherIntegration(json);
+        List<File> files = new ArrayList<>();
+        // Integrations write to <id>/<id>-materials.json, standalone ones straight into the directory
+        try (Stream<Path> paths = Files.walk(jsonDir.toPath(), 2)) {
+            paths.filter(path -> path.getFileName().toString().endsWith(MATERIALS_FILE) && Files.isRegularFile(path))
+                    .filter(path -> {
+                        String source = getSource(path.toFile());
+                        return !source.equals(this.modId) && !sources.contains(source);
+                    })
+                    .forEach(path -> files.add(path.toFile()));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        files.sort(Comparator.comparing(File::getName));
+        Set<String> fileSources = files.stream().map(ConArmIntegration::getSource).collect(Collectors.toSet());
+        for (String source : MaterialBus.getUnpublishedSources()) {
+            if (!source.equals(this.modId) && !fileSources.contains(source)) {
+                this.logger.warn("Integration " + source + " did not publish its materials and has no materials file, "
+                        + "its materials are converted from the registry like those of any other mod");
+            }
         }
-    }
 
-    private void loadMaterialsFromOtherIntegration(File file){
-        Gson gson = new GsonBuilder().setPrettyPrinting().setLenient().create();
-        try {
-            Collections.addAll(this.jsonMaterials, gson.fromJson(new FileReader(file), ArmorMaterial[].class));
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
+        start = System.nanoTime();
+        List<ForkJoinTask<String>> tasks = new ArrayList<>(files.size());
+        for (File json : files) {
+            tasks.add(getLoadingPool().submit(() -> this.loadMaterialsFromOtherIntegration(json)));
         }
+        tasks.forEach(task -> this.logger.info(task.join()));
+        this.logger.info("Loaded " + files.size() + " other integration files in " + toMillis(System.nanoTime() - start)
+                + " ms, " + this.otherMaterials.size() + " materials in total");
+    }
+
+    /**
+     * @return the id of the integration that wrote the materials file
+     */
+    private static String getSource(File file){
+        String name = file.getName();
+        return name.substring(0, name.length() - MATERIALS_FILE.length());
+    }
+
+    /**
+     * Runs on the loading pool, so it only touches the concurrent material index.
+     * @return a timing and record count summary for the file
+     */
+    private String loadMaterialsFromOtherIntegration(File file){
+        long start = System.nanoTime();
+        int[] records = {0};
+        this.loadJsonFile(file.getPath(), ArmorMaterial.class, material -> {
+            records[0]++;
+            if (null != material.getIdentifier()) {
+                this.otherMaterials.putIfAbsent(material.getIdentifier(), material);
+            }
+        });
+        return "Parsed " + records[0] + " materials (" + file.length() + " bytes) from " + file.getName()
+                + " in " + toMillis(System.nanoTime() - start) + " ms";
     }
 
     private void addMaterial(IBasicMaterial material){
         if(this.isMaterialEnabled(material.getIdentifier())){
-            this.materials.putIfAbsent(material.getIdentifier(), material);
+            this.loadMaterial(material);
         }
     }
 
     @Override
     protected void loadMaterialsFromSource() {
-        TinkerRegistry.getAllMaterials().stream().filter(this::isConversionAvailable)
-                .map(material -> this.newTiCMaterial(material, TinkerMaterials.iron)).filter(material -> !this.jsonMaterials.contains(material))
-                .forEach(material -> this.addMaterial((IBasicMaterial) material));
+        // Other mods may have added materials or stats since the index was last built
+        MaterialRegistryIndex.invalidate();
+        this.deriveMaterials(MaterialRegistryIndex.getAllMaterials());
     }
 
-    private boolean isConversionAvailable(Material material){
-        boolean core = !material.hasStats(ArmorMaterialType.CORE) && material.hasStats(MaterialTypes.HEAD);
-        boolean plates = !material.hasStats(ArmorMaterialType.PLATES) && material.hasStats(MaterialTypes.HANDLE);
-        boolean trim = !material.hasStats(ArmorMaterialType.TRIM) && material.hasStats(MaterialTypes.EXTRA);
-        return core || plates || trim;
-    }
-
-    private IArmorMaterial newTiCMaterial(Material material, Material baseMaterial){
-        ArmorMaterial armorMaterial = new ArmorMaterial(material.identifier, material.materialTextColor, MaterialRenderType.METAL,
-                this.getCoreMaterialStats(material, baseMaterial),
-                this.getPlatesMaterialStats(material, baseMaterial),
-                this.getTrimMaterialStats(material, baseMaterial)
-        );
-        armorMaterial.setCastable(material.isCastable());
-        armorMaterial.setCraftable(material.isCraftable());
-
-        return armorMaterial;
-    }
-
-    private CoreMaterialStats getCoreMaterialStats(Material material, Material baseMaterial){
-        return new CoreMaterialStats(
-                this.calculateDurability(material, baseMaterial),
-                this.calculateDefense(material, baseMaterial)
-        );
+    /**
+     * Derives armor materials for the given registry materials, which are remembered as seen.
+     */
+    private void deriveMaterials(List<Material> registryMaterials) {
+        registryMaterials.forEach(material -> this.registryIdentifiers.add(material.identifier));
+        List<Material> convertible = getUnloadedMaterials(registryMaterials, this.otherMaterials).stream()
+                .filter(this::isConversionAvailable)
+                .collect(Collectors.toList());
+        new StatDerivation(convertible, this.getFormulas()).derive(getLoadingPool())
+                .forEach(material -> this.addMaterial((IBasicMaterial) material));
     }
 
-    private PlatesMaterialStats getPlatesMaterialStats(Material material, Material baseMaterial){
-        return new PlatesMaterialStats(
-                this.calculateDefense(material, baseMaterial),
-                this.calculateExtraDurability(material, baseMaterial),
-                this.calculateToughness(material, baseMaterial)
-        );
+    /**
+     * Merges the registry materials against the materials loaded from JSON with one hash lookup each,
+     * see ConArmMergeBenchmark for how it scales.
+     * @return the registry materials that were not loaded, in registry order
+     */
+    static List<Material> getUnloadedMaterials(List<Material> registryMaterials, Map<String, ?> loaded) {
+        List<Material> unloaded = new ArrayList<>(registryMaterials.size());
+        for (Material material : registryMaterials) {
+            if (!loaded.containsKey(material.identifier)) {
+                unloaded.add(material);
+            }
+        }
+        return unloaded;
     }
 
-    private TrimMaterialStats getTrimMaterialStats(Material material, Material baseMaterial){
-        return new TrimMaterialStats(
-                this.calculateExtraDurability(material, baseMaterial)
-        );
+    private boolean isConversionAvailable(Material material){
+        int stats = MaterialRegistryIndex.getStatMask(material.identifier);
+        boolean core = 0 == (stats & CORE) && 0 != (stats & HEAD);
+        boolean plates = 0 == (stats & PLATES) && 0 != (stats & HANDLE);
+        boolean trim = 0 == (stats & TRIM) && 0 != (stats & EXTRA);
+        return core || plates || trim;
     }
 
-    private int calculateDurability(Material material, CoreMaterialStats core, HeadMaterialStats head){
-        HeadMaterialStats materialHead = material.getStats(MaterialTypes.HEAD);
-        return null != materialHead ? (int) Math.clamp(core.durability * materialHead.durability / head.durability / STAT_MULT, DURA_MIN, DURA_MAX): 0;
-    }
+    /**
+     * Reads and compiles the formulas once, the file is written back so it lists every formula.
+     */
+    private Formula[] getFormulas(){
+        if (null == this.formulas) {
+            File file = new File(this.configDir + "/" + this.root + "/" + this.modId + "/" + this.modId + "-formulas.json");
+            ConArmFormulas config = ConArmFormulas.read(file, this.logger);
+            this.writeJsonFile(file, AelibGson.getGson().toJson(config));
 
-    private int calculateDurability(Material material, Material baseMaterial){
-        return this.calculateDurability(material, baseMaterial.getStats(ArmorMaterialType.CORE), baseMaterial.getStats(MaterialTypes.HEAD));
+            Material baseline = MaterialRegistryIndex.getMaterial(config.getBaseline());
+            if (Material.UNKNOWN == baseline || !ConArmFormulas.hasConversionStats(baseline)) {
+                this.logger.error("Baseline material " + config.getBaseline() + " is missing or lacks tool or armor stats, using iron");
+                baseline = TinkerMaterials.iron;
+            }
+            this.formulas = config.compile(baseline, this.logger);
+        }
+        return this.formulas;
     }
 
-    private float calculateDefense(Material material, CoreMaterialStats core, HeadMaterialStats head){
-        HeadMaterialStats materialHead = material.getStats(MaterialTypes.HEAD);
-        return null != materialHead ? Math.clamp(1.5f * core.defense * materialHead.attack / head.attack  / STAT_MULT, DEF_MIN,DEF_MAX) : 0;
-    }
+    /**
+     * Derives the armor stats of a batch of materials from their tool stats.
+     * The tool stats are copied into columns first, the compiled formulas are evaluated in one parallel pass over them,
+     * and the armor materials are only built at the end.
+     * A formula is only evaluated for materials that have every stat it reads, the others get 0.
+     */
+    private static class StatDerivation {
+        private final List<Material> materials;
+        private final Formula[] formulas;
+        private final float[][] columns;
+        private final int[] available;
+        private final float[][] derived;
 
-    private float calculateDefense(Material material, Material baseMaterial){
-        return this.calculateDefense(material, baseMaterial.getStats(ArmorMaterialType.CORE), baseMaterial.getStats(MaterialTypes.HEAD));
-    }
+        StatDerivation(List<Material> materials, Formula[] formulas){
+            int size = materials.size();
+            this.materials = materials;
+            this.formulas = formulas;
+            this.columns = new float[ConArmFormulas.COLUMNS][size];
+            this.available = new int[size];
+            this.derived = new float[ConArmFormulas.FORMULAS][size];
 
-    private float calculateToughness(Material material, PlatesMaterialStats plates, HandleMaterialStats handle){
-        HandleMaterialStats materialHandle = material.getStats(MaterialTypes.HANDLE);
-        return null != materialHandle ? Math.clamp(3 * plates.toughness * materialHandle.durability / handle.durability / STAT_MULT, TOUGH_MIN, TOUGH_MAX) : 0;
-    }
+            for (int i = 0; i < size; i++) {
+                Material material = materials.get(i);
+                HeadMaterialStats head = material.getStats(MaterialTypes.HEAD);
+                if (null != head) {
+                    this.available[i] |= 1 << ConArmFormulas.HEAD_DURABILITY | 1 << ConArmFormulas.HEAD_ATTACK;
+                    this.columns[ConArmFormulas.HEAD_DURABILITY][i] = head.durability;
+                    this.columns[ConArmFormulas.HEAD_ATTACK][i] = head.attack;
+                }
+                HandleMaterialStats handle = material.getStats(MaterialTypes.HANDLE);
+                if (null != handle) {
+                    this.available[i] |= 1 << ConArmFormulas.HANDLE_DURABILITY;
+                    this.columns[ConArmFormulas.HANDLE_DURABILITY][i] = handle.durability;
+                }
+                ExtraMaterialStats extra = material.getStats(MaterialTypes.EXTRA);
+                if (null != extra) {
+                    this.available[i] |= 1 << ConArmFormulas.EXTRA_DURABILITY;
+                    this.columns[ConArmFormulas.EXTRA_DURABILITY][i] = extra.extraDurability;
+                }
+            }
+        }
 
-    private float calculateToughness(Material material, Material baseMaterial){
-        return this.calculateToughness(material, baseMaterial.getStats(ArmorMaterialType.PLATES), baseMaterial.getStats(MaterialTypes.HANDLE));
-    }
+        List<IArmorMaterial> derive(ForkJoinPool pool){
+            pool.submit(() -> IntStream.range(0, this.materials.size()).parallel().forEach(this::derive)).join();
 
-    private float calculateExtraDurability(Material material, TrimMaterialStats trim, ExtraMaterialStats extra){
-        ExtraMaterialStats materialExtra = material.getStats(MaterialTypes.EXTRA);
-        return null != materialExtra ? 2 * trim.extraDurability * materialExtra.extraDurability / extra.extraDurability / STAT_MULT : 0;
-    }
+            float[] durability = this.derived[ConArmFormulas.DURABILITY];
+            float[] defense = this.derived[ConArmFormulas.DEFENSE];
+            float[] toughness = this.derived[ConArmFormulas.TOUGHNESS];
+            float[] extraDurability = this.derived[ConArmFormulas.EXTRA];
+            List<IArmorMaterial> armorMaterials = new ArrayList<>(this.materials.size());
+            for (int i = 0; i < this.materials.size(); i++) {
+                Material material = this.materials.get(i);
+                ArmorMaterial armorMaterial = new ArmorMaterial(material.identifier, material.materialTextColor, MaterialRenderType.METAL,
+                        new CoreMaterialStats(durability[i], defense[i]),
+                        new PlatesMaterialStats(defense[i], extraDurability[i], toughness[i]),
+                        new TrimMaterialStats(extraDurability[i])
+                );
+                armorMaterial.setCastable(material.isCastable());
+                armorMaterial.setCraftable(material.isCraftable());
+                armorMaterials.add(armorMaterial);
+            }
+            return armorMaterials;
+        }
 
-    private float calculateExtraDurability(Material material, Material baseMaterial){
-        return this.calculateExtraDurability(material, baseMaterial.getStats(ArmorMaterialType.TRIM), baseMaterial.getStats(MaterialTypes.EXTRA));
+        private void derive(int i){
+            for (int f = 0; f < this.formulas.length; f++) {
+                int required = this.formulas[f].getColumnMask();
+                if (required == (this.available[i] & required)) {
+                    this.derived[f][i] = this.formulas[f].evaluate(this.columns, i);
+                }
+            }
+        }
     }
 }
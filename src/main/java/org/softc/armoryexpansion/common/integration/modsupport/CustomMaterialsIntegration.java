@@ -1,26 +1,31 @@
 package org.softc.armoryexpansion.common.integration.modsupport;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import net.minecraft.block.Block;
 import net.minecraftforge.common.MinecraftForge;
-import net.minecraftforge.event.RegistryEvent;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
+import net.minecraftforge.fml.common.event.FMLServerStartingEvent;
+import net.minecraftforge.fml.common.event.FMLServerStoppingEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import org.softc.armoryexpansion.ArmoryExpansion;
+import org.softc.armoryexpansion.common.command.ArmoryExpansionCommand;
+import org.softc.armoryexpansion.common.integration.aelib.config.MaterialConfigFlags;
+import org.softc.armoryexpansion.common.integration.aelib.config.MaterialConfigOptions;
 import org.softc.armoryexpansion.common.integration.aelib.integration.IndependentJsonIntegration;
+import org.softc.armoryexpansion.common.integration.aelib.integration.IntegrationReloader;
+import org.softc.armoryexpansion.common.integration.aelib.json.AelibGson;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.constructsarmory.material.ArmorToolRangedMaterial;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.general.material.IBasicMaterial;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.general.traits.MaterialTraits;
+import org.softc.armoryexpansion.common.integration.aelib.plugins.tinkersconstruct.registry.MaterialRegistryIndex;
 import org.softc.armoryexpansion.common.util.ConfigFileSuffixEnum;
 import slimeknights.tconstruct.library.events.MaterialEvent;
 import slimeknights.tconstruct.library.traits.AbstractTrait;
 
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.util.Collection;
-import java.util.HashSet;
+import java.util.*;
 
 @Mod(
         modid = CustomMaterialsIntegration.MODID,
@@ -28,7 +33,6 @@ import java.util.HashSet;
         version = ArmoryExpansion.VERSION,
         dependencies = CustomMaterialsIntegration.DEPENDENCIES
 )
-@Mod.EventBusSubscriber
 public class CustomMaterialsIntegration extends IndependentJsonIntegration {
     private static final String INTEGRATION_ID = "custommaterials";
     private static final String INTEGRATION_NAME = "Custom Materials";
@@ -41,9 +45,11 @@ public class CustomMaterialsIntegration extends IndependentJsonIntegration {
     private static File configDirFile;
 
     private Collection<String> traitIdentifierList = new HashSet<>();
+    private IntegrationReloader<ReloadedData> reloader;
 
     public CustomMaterialsIntegration() {
         super(INTEGRATION_ID, ArmoryExpansion.MODID, INTEGRATION_ID);
+        // Only for the trait events, the registry phases come from the IntegrationDispatcher
         MinecraftForge.EVENT_BUS.register(this);
     }
 
@@ -67,9 +73,23 @@ public class CustomMaterialsIntegration extends IndependentJsonIntegration {
         this.exportAllPartsToJson(configDirFile);
     }
 
-    @SubscribeEvent
-    public void registerBlocks(RegistryEvent.Register<? super Block> event){
-        super.registerBlocks(event);
+    @Mod.EventHandler
+    public void serverStarting(FMLServerStartingEvent event) {
+        if (this.isLoadable()) {
+            File dir = new File(this.getFilePath(new File(this.configDir), this.modId, ConfigFileSuffixEnum.MATERIALS_SUFFIX)).getParentFile();
+            this.reloader = new IntegrationReloader<>(INTEGRATION_NAME, dir.toPath(), this::isReloadedFile,
+                    this::readReloadedData, this::applyReloadedData, this.logger);
+            this.reloader.start(event.getServer(), ArmoryExpansion.isHotReloadEnabled());
+            event.registerServerCommand(new ArmoryExpansionCommand(this.reloader));
+        }
+    }
+
+    @Mod.EventHandler
+    public void serverStopping(FMLServerStoppingEvent event) {
+        if (null != this.reloader) {
+            this.reloader.stop();
+            this.reloader = null;
+        }
     }
 
     @SubscribeEvent
@@ -78,14 +98,8 @@ public class CustomMaterialsIntegration extends IndependentJsonIntegration {
     }
 
     private void exportAllTraitsToJson(File configDir){
-        GsonBuilder builder = new GsonBuilder().setPrettyPrinting().setLenient();
-        Gson gson = builder.create();
         File output = new File(configDir.getPath() + "/armoryexpansion/traits.txt");
-        try (FileWriter writer = new FileWriter(output)) {
-            writer.write(gson.toJson(this.traitIdentifierList));
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        this.writeJsonFile(output, AelibGson.getGson().toJson(this.traitIdentifierList));
     }
 
     private void exportAllPartsToJson(File configDir){
@@ -102,6 +116,117 @@ public class CustomMaterialsIntegration extends IndependentJsonIntegration {
 //        }
     }
 
+    // Reloading
+    private boolean isReloadedFile(String fileName) {
+        return fileName.equals(this.modId + ConfigFileSuffixEnum.MATERIALS_SUFFIX.getSuffix() + ".json")
+                || fileName.equals(this.modId + ConfigFileSuffixEnum.TRAITS_SUFFIX.getSuffix() + ".json")
+                || fileName.equals(this.modId + ConfigFileSuffixEnum.CONFIG_SUFFIX.getSuffix() + ".json");
+    }
+
+    private ReloadedData readReloadedData() {
+        File dir = new File(this.configDir);
+        ReloadedData data = new ReloadedData();
+        this.loadJsonFile(this.getFilePath(dir, this.modId, ConfigFileSuffixEnum.MATERIALS_SUFFIX), ArmorToolRangedMaterial.class,
+                material -> data.materials.putIfAbsent(material.getIdentifier(), material));
+        this.loadJsonFile(this.getFilePath(dir, this.modId, ConfigFileSuffixEnum.TRAITS_SUFFIX), MaterialTraits.class,
+                traits -> data.traits.putIfAbsent(traits.getIdentifier(), traits));
+        this.loadJsonFile(this.getFilePath(dir, this.modId, ConfigFileSuffixEnum.CONFIG_SUFFIX), MaterialConfigOptions.class,
+                options -> data.config.putIfAbsent(options.getName(), options));
+        return data;
+    }
+
+    /**
+     * Applies what changed compared to the loaded data. Materials, stats and fluids added after loading would
+     * never reach the clients, and Tinkers' Construct cannot remove any of them, so only new traits entries of registered
+     * materials and traits being turned on take effect right away. Everything else is reported as needing a restart.
+     */
+    private String applyReloadedData(ReloadedData data) {
+        Gson gson = AelibGson.getGson();
+        MaterialRegistryIndex.invalidate();
+
+        int changedConfig = 0;
+        int restartConfig = 0;
+        for (MaterialConfigOptions options : data.config.values()) {
+            if (!this.integrationConfigHelper.isConfigured(options.getName())) {
+                // Only configures a material added by the reload
+                restartConfig++;
+                continue;
+            }
+            int currentFlags = this.integrationConfigHelper.getFlags(options.getName());
+            int flags = MaterialConfigFlags.pack(options);
+            if (MaterialConfigFlags.has(flags & ~currentFlags, MaterialConfigFlags.TRAITS)) {
+                // The traits that were left out while loading are registered now, a material without any has nothing to register
+                MaterialTraits traits = this.materialTraits.get(options.getName());
+                if (null == traits || traits.registerTinkersMaterialTraits(MaterialConfigFlags.has(currentFlags, MaterialConfigFlags.MATERIAL))) {
+                    this.integrationConfigHelper.putFlags(options.getName(), currentFlags | MaterialConfigFlags.TRAITS);
+                    changedConfig++;
+                } else {
+                    restartConfig++;
+                }
+            }
+            if (0 != ((flags ^ currentFlags) & ~MaterialConfigFlags.TRAITS) || MaterialConfigFlags.has(currentFlags & ~flags, MaterialConfigFlags.TRAITS)) {
+                restartConfig++;
+            }
+        }
+
+        int addedMaterials = 0;
+        int addedFluids = 0;
+        int changedMaterials = 0;
+        for (IBasicMaterial material : data.materials.values()) {
+            IBasicMaterial current = this.materials.get(material.getIdentifier());
+            if (null == current) {
+                addedMaterials++;
+                if (material.isCastable()) {
+                    addedFluids++;
+                }
+            } else if (!gson.toJson(current).equals(gson.toJson(material))) {
+                changedMaterials++;
+            }
+        }
+
+        int addedTraits = 0;
+        int restartTraits = 0;
+        for (MaterialTraits traits : data.traits.values()) {
+            MaterialTraits current = this.materialTraits.get(traits.getIdentifier());
+            if (null == current) {
+                if (traits.registerTinkersMaterialTraits(this.isMaterialEnabled(traits.getIdentifier()) && this.integrationConfigHelper.traitsEnabled(traits.getIdentifier()))) {
+                    this.materialTraits.put(traits.getIdentifier(), traits);
+                    addedTraits++;
+                } else {
+                    restartTraits++;
+                }
+            } else if (!gson.toJson(current).equals(gson.toJson(traits))) {
+                // Tinkers cannot remove traits, registering the new list would only add to the old one
+                restartTraits++;
+            }
+        }
+
+        String summary = "Reloaded custom materials: " + addedTraits + " added traits, " + changedConfig + " changed config entries";
+        List<String> restart = new ArrayList<>();
+        if (0 < addedMaterials) {
+            restart.add(addedMaterials + " new materials");
+        }
+        if (0 < addedFluids) {
+            restart.add(addedFluids + " new fluids");
+        }
+        if (0 < changedMaterials) {
+            restart.add(changedMaterials + " changed materials");
+        }
+        if (0 < restartTraits) {
+            restart.add(restartTraits + " changed traits or traits of unregistered or disabled materials");
+        }
+        if (0 < restartConfig) {
+            restart.add(restartConfig + " config entries");
+        }
+        return restart.isEmpty() ? summary : summary + ", " + String.join(", ", restart) + " need a restart";
+    }
+
+    private static class ReloadedData {
+        private final Map<String, IBasicMaterial> materials = new HashMap<>();
+        private final Map<String, MaterialTraits> traits = new HashMap<>();
+        private final Map<String, MaterialConfigOptions> config = new HashMap<>();
+    }
+
     @Override
     protected void loadMaterialsFromSource() {
         // Left empty on purpose
@@ -117,15 +242,8 @@ public class CustomMaterialsIntegration extends IndependentJsonIntegration {
     @Override
     protected void saveAlloysToJson(File dir, String fileName, boolean forceCreate){
         if(!this.alloys.values().isEmpty() || forceCreate) {
-            Gson gson = new GsonBuilder().setPrettyPrinting().setLenient().create();
             File output = new File(this.getFilePath(dir, fileName, ConfigFileSuffixEnum.ALLOYS_SUFFIX));
-            output.getParentFile().mkdirs();
-            try (FileWriter writer = new FileWriter(output)) {
-                writer.write(this.returnAlloyExample());
-                writer.write(gson.toJson(this.alloys.values()));
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+            this.writeJsonFile(output, this.returnAlloyExample() + AelibGson.getGson().toJson(this.alloys.values()));
         }
     }
 
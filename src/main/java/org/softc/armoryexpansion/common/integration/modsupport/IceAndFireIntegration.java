@@ -1,13 +1,9 @@
 package org.softc.armoryexpansion.common.integration.modsupport;
 
 import com.github.alexthe666.iceandfire.IceAndFire;
-import net.minecraft.block.Block;
-import net.minecraftforge.common.MinecraftForge;
-import net.minecraftforge.event.RegistryEvent;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
-import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import org.softc.armoryexpansion.ArmoryExpansion;
 import org.softc.armoryexpansion.common.integration.aelib.integration.JsonIntegration;
 
@@ -17,7 +13,6 @@ import org.softc.armoryexpansion.common.integration.aelib.integration.JsonIntegr
         version = ArmoryExpansion.VERSION,
         dependencies = IceAndFireIntegration.DEPENDENCIES
 )
-@Mod.EventBusSubscriber
 public class IceAndFireIntegration extends JsonIntegration {
     static final String MODID = ArmoryExpansion.MODID + "-" + IceAndFire.MODID;
     static final String NAME = ArmoryExpansion.NAME + " - " + IceAndFire.NAME;
@@ -27,7 +22,6 @@ public class IceAndFireIntegration extends JsonIntegration {
 
     public IceAndFireIntegration() {
         super(IceAndFire.MODID, ArmoryExpansion.MODID, IceAndFire.MODID);
-        MinecraftForge.EVENT_BUS.register(this);
     }
 
 //    public IceAndFireIntegration() {
@@ -44,9 +38,4 @@ public class IceAndFireIntegration extends JsonIntegration {
     public void init(FMLInitializationEvent event) {
         super.init(event);
     }
-
-    @SubscribeEvent
-    public void registerBlocks(RegistryEvent.Register<? super Block> event){
-        super.registerBlocks(event);
-    }
 }
@@ -1,12 +1,8 @@
 package org.softc.armoryexpansion.common.integration.modsupport;
 
-import net.minecraft.block.Block;
-import net.minecraftforge.common.MinecraftForge;
-import net.minecraftforge.event.RegistryEvent;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
-import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import org.softc.armoryexpansion.ArmoryExpansion;
 import org.softc.armoryexpansion.common.integration.aelib.integration.JsonIntegration;
 
@@ -16,7 +12,6 @@ import org.softc.armoryexpansion.common.integration.aelib.integration.JsonIntegr
         version = ArmoryExpansion.VERSION,
         dependencies = MatterOverdriveIntegration.DEPENDENCIES
 )
-@Mod.EventBusSubscriber
 public class MatterOverdriveIntegration extends JsonIntegration {
     static final String MODID = ArmoryExpansion.MODID + "-matteroverdrive";
     static final String NAME = ArmoryExpansion.NAME + " - MatterOverdrive";
@@ -26,7 +21,6 @@ public class MatterOverdriveIntegration extends JsonIntegration {
 
     public MatterOverdriveIntegration() {
         super("matteroverdrive", ArmoryExpansion.MODID, "matteroverdrive");
-        MinecraftForge.EVENT_BUS.register(this);
     }
 
 //    public MatterOverdriveIntegration() {
@@ -43,9 +37,4 @@ public class MatterOverdriveIntegration extends JsonIntegration {
     public void init(FMLInitializationEvent event) {
         super.init(event);
     }
-
-    @SubscribeEvent
-    public void registerBlocks(RegistryEvent.Register<? super Block> event){
-        super.registerBlocks(event);
-    }
 }
@@ -0,0 +1,75 @@
+package org.softc.armoryexpansion.common.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Writes files only when their content changed, through a temporary file that is moved over the target,
+ * so a crash mid-write never leaves a truncated file behind.
+ */
+public final class AtomicFileWriter {
+    private AtomicFileWriter() {
+    }
+
+    /**
+     * @return true if the file was written, false if it already had the given content
+     */
+    public static boolean writeIfChanged(File output, String content) throws IOException {
+        return writeIfChanged(output, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return true if the file was written, false if it already had the given content
+     */
+    public static boolean writeIfChanged(File output, byte[] content) throws IOException {
+        if (hasContent(output, content)) {
+            return false;
+        }
+        File parent = output.getAbsoluteFile().getParentFile();
+        parent.mkdirs();
+        Path temp = Files.createTempFile(parent.toPath(), output.getName(), ".tmp");
+        try {
+            Files.write(temp, content);
+            try {
+                Files.move(temp, output.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return true;
+    }
+
+    private static boolean hasContent(File file, byte[] content) throws IOException {
+        // Different lengths can never match, which avoids hashing most changed files
+        if (!file.isFile() || file.length() != content.length) {
+            return false;
+        }
+        MessageDigest digest = newDigest();
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            byte[] buffer = new byte[8192];
+            for (int read = in.read(buffer); -1 != read; read = in.read(buffer)) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return Arrays.equals(digest.digest(), newDigest().digest(content));
+    }
+
+    private static MessageDigest newDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+}
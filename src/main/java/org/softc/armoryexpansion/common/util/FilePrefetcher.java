@@ -0,0 +1,103 @@
+package org.softc.armoryexpansion.common.util;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reads the JSON files the enabled integrations are going to load in the background as soon as they are known,
+ * so the integrations only have to pick up the buffers.
+ * Each buffer is handed out once, and only if the file was not modified since it was read.
+ */
+public final class FilePrefetcher {
+    private static final Map<Path, CompletableFuture<Prefetched>> FILES = new ConcurrentHashMap<>();
+    private static final AtomicInteger HITS = new AtomicInteger();
+    private static final AtomicInteger MISSES = new AtomicInteger();
+    private static final AtomicLong BLOCKED_NANOS = new AtomicLong();
+
+    private FilePrefetcher() {
+    }
+
+    /**
+     * Starts reading the files, the call itself does no I/O.
+     */
+    public static void prefetch(Collection<File> files) {
+        ExecutorService executor = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "Armory Expansion prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (File file : files) {
+            Path path = file.toPath();
+            FILES.put(key(path), CompletableFuture.supplyAsync(() -> read(path), executor));
+        }
+        // Lets the queued reads finish, then releases the threads
+        executor.shutdown();
+    }
+
+    /**
+     * @return the prefetched content of the file if it is still current, or a stream reading it from disk.
+     * The buffer is dropped either way, so it is only kept until the file is used.
+     */
+    public static InputStream open(File file) throws FileNotFoundException {
+        long start = System.nanoTime();
+        CompletableFuture<Prefetched> future = FILES.remove(key(file.toPath()));
+        if (null != future) {
+            boolean waited = !future.isDone();
+            Prefetched prefetched = future.join();
+            if (waited) {
+                BLOCKED_NANOS.addAndGet(System.nanoTime() - start);
+            }
+            if (null != prefetched && prefetched.isCurrent(file)) {
+                HITS.incrementAndGet();
+                return new ByteArrayInputStream(prefetched.content);
+            }
+        }
+        MISSES.incrementAndGet();
+        return new FileInputStream(file);
+    }
+
+    /**
+     * Drops the buffers nobody asked for.
+     * @return a summary of how well prefetching worked
+     */
+    public static String finish() {
+        int unused = FILES.size();
+        FILES.clear();
+        return "Prefetched files: " + HITS.get() + " hits, " + MISSES.get() + " misses, " + unused + " unused, blocked for "
+                + TimeUnit.NANOSECONDS.toMillis(BLOCKED_NANOS.get()) + " ms";
+    }
+
+    private static Path key(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+    private static Prefetched read(Path path) {
+        try {
+            File file = path.toFile();
+            long lastModified = file.lastModified();
+            return new Prefetched(Files.readAllBytes(path), lastModified);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static class Prefetched {
+        private final byte[] content;
+        private final long lastModified;
+
+        Prefetched(byte[] content, long lastModified) {
+            this.content = content;
+            this.lastModified = lastModified;
+        }
+
+        boolean isCurrent(File file) {
+            return file.lastModified() == this.lastModified && file.length() == this.content.length;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.softc.armoryexpansion.common.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Counts the bytes read from the wrapped stream and fails once more than {@code maxSize} bytes are available,
+ * instead of silently truncating the data. A non positive {@code maxSize} disables the limit.
+ */
+public class LimitedInputStream extends FilterInputStream {
+    private final long maxSize;
+    private final String origin;
+    private long count;
+
+    public LimitedInputStream(InputStream in, long maxSize, String origin) {
+        super(in);
+        this.maxSize = maxSize;
+        this.origin = origin;
+    }
+
+    public long getCount() {
+        return this.count;
+    }
+
+    @Override
+    public int read() throws IOException {
+        this.checkLimit();
+        int read = super.read();
+        if (-1 != read) {
+            this.count++;
+        }
+        return read;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (0 == len) {
+            return 0;
+        }
+        this.checkLimit();
+        if (0 >= this.remaining()) {
+            return -1;
+        }
+        int read = super.read(b, off, (int) java.lang.Math.min(len, this.remaining()));
+        if (0 < read) {
+            this.count += read;
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        this.checkLimit();
+        if (0 >= this.remaining()) {
+            return 0;
+        }
+        long skipped = super.skip(java.lang.Math.min(n, this.remaining()));
+        this.count += skipped;
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private long remaining() {
+        return 0 < this.maxSize ? this.maxSize - this.count : Long.MAX_VALUE;
+    }
+
+    private void checkLimit() throws IOException {
+        // Only fail when there actually is data past the limit, so inputs of exactly maxSize bytes are accepted
+        if (0 < this.maxSize && this.count >= this.maxSize && -1 != super.read()) {
+            throw new LimitExceededException(this.origin, this.maxSize, this.count + 1);
+        }
+    }
+
+    public static class LimitExceededException extends IOException {
+        private final long maxSize;
+        private final long bytesRead;
+
+        LimitExceededException(String origin, long maxSize, long bytesRead) {
+            super("Input " + origin + " exceeds the configured limit of " + maxSize + " bytes (read " + bytesRead + " bytes before aborting)");
+            this.maxSize = maxSize;
+            this.bytesRead = bytesRead;
+        }
+
+        public long getMaxSize() {
+            return this.maxSize;
+        }
+
+        public long getBytesRead() {
+            return this.bytesRead;
+        }
+    }
+}